@@ -1,9 +1,18 @@
 package com.assetmanagement.app;
 
+import com.assetmanagement.common.config.BinaryEncodingConfig;
+import com.assetmanagement.common.config.DataSourceAdmissionConfig;
+import com.assetmanagement.common.config.IoThreadFactory;
+import com.assetmanagement.common.config.PersistenceMetricsConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@Import({BinaryEncodingConfig.class, DataSourceAdmissionConfig.class, IoThreadFactory.class,
+        PersistenceMetricsConfig.class})
+@EnableScheduling
 public class AssetManagementApplication {
 
     public static void main(String[] args) {
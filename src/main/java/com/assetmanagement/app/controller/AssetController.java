@@ -1,14 +1,52 @@
 package com.assetmanagement.app.controller;
 
+import com.assetmanagement.app.dto.AssetListPage;
+import com.assetmanagement.app.dto.LoginRequest;
+import com.assetmanagement.app.dto.ReclaimJobStatus;
+import com.assetmanagement.app.dto.StorageUsageSummary;
+import com.assetmanagement.app.dto.UploadInitRequest;
+import com.assetmanagement.app.dto.UserCacheStats;
+import com.assetmanagement.app.dto.UserInfo;
 import com.assetmanagement.app.dto.UserRegistrationDto;
+import com.assetmanagement.app.exception.HashingCapacityExceededException;
+import com.assetmanagement.app.exception.StorageQuotaExceededException;
+import com.assetmanagement.app.exception.UploadNotFoundException;
+import com.assetmanagement.app.exception.UserDirectoryDeletionException;
+import com.assetmanagement.app.model.Asset;
 import com.assetmanagement.app.model.User;
+import com.assetmanagement.app.repository.AssetRepository;
+import com.assetmanagement.app.service.AssetDownloadService;
+import com.assetmanagement.app.service.AssetListSort;
+import com.assetmanagement.app.service.AssetQueryService;
+import com.assetmanagement.app.service.AuthenticationService;
+import com.assetmanagement.app.service.AssetSearchService;
+import com.assetmanagement.app.service.AssetUploadService;
+import com.assetmanagement.app.service.UserCacheService;
+import com.assetmanagement.app.service.DirectoryReclaimService;
 import com.assetmanagement.app.service.UserService;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api")
@@ -16,6 +54,30 @@ public class AssetController {
 
     @Autowired
     private UserService userService;
+    
+    @Autowired
+    private DirectoryReclaimService directoryReclaimService;
+    
+    @Autowired
+    private AssetUploadService assetUploadService;
+    
+    @Autowired
+    private AssetDownloadService assetDownloadService;
+    
+    @Autowired
+    private AssetRepository assetRepository;
+    
+    @Autowired
+    private AssetSearchService assetSearchService;
+    
+    @Autowired
+    private AssetQueryService assetQueryService;
+    
+    @Autowired
+    private UserCacheService userCacheService;
+    
+    @Autowired
+    private AuthenticationService authenticationService;
 
     @GetMapping("/health")
     public String health() {
@@ -23,41 +85,66 @@ public class AssetController {
     }
     
     @PostMapping("/users/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody UserRegistrationDto registrationDto) {
-        try {
-            User user = userService.registerUser(
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody UserRegistrationDto registrationDto) {
+        return authenticationService.register(
                 registrationDto.getUsername(),
                 registrationDto.getEmail(),
                 registrationDto.getPassword()
-            );
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "User registered successfully");
-            response.put("userId", user.getId());
-            response.put("username", user.getUsername());
-            response.put("userDirectory", user.getUserDirectory());
-            
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
-        }
+            )
+            .<ResponseEntity<?>>thenApply(user -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("message", "User registered successfully");
+                response.put("userId", user.getId());
+                response.put("username", user.getUsername());
+                response.put("userDirectory", userService.getUserDirectory(user));
+                
+                return ResponseEntity.ok(response);
+            })
+            .exceptionally(e -> passwordFailure(e, HttpStatus.BAD_REQUEST));
+    }
+    
+    @PostMapping("/users/login")
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest loginRequest) {
+        return authenticationService.login(loginRequest.getUsername(), loginRequest.getPassword())
+            .<ResponseEntity<?>>thenApply(user -> {
+                if (user.isEmpty()) {
+                    return errorResponse(HttpStatus.UNAUTHORIZED, "Invalid username or password");
+                }
+                Map<String, Object> response = new HashMap<>();
+                response.put("message", "Login successful");
+                response.put("userId", user.get().getId());
+                response.put("username", user.get().getUsername());
+                response.put("lastLogin", user.get().getLastLogin());
+                return ResponseEntity.ok(response);
+            })
+            .exceptionally(e -> passwordFailure(e, HttpStatus.INTERNAL_SERVER_ERROR));
     }
     
     @GetMapping("/users/{username}")
-    public ResponseEntity<?> getUserInfo(@PathVariable String username) {
+    public ResponseEntity<?> getUserInfo(@PathVariable String username,
+                                         @RequestParam(required = false) String fields) {
+        Set<String> requested;
+        try {
+            requested = UserInfo.parseFields(fields);
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
         return userService.findByUsername(username)
             .map(user -> {
-                Map<String, Object> response = new HashMap<>();
-                response.put("id", user.getId());
-                response.put("username", user.getUsername());
-                response.put("email", user.getEmail());
-                response.put("userDirectory", user.getUserDirectory());
-                response.put("createdAt", user.getCreatedAt());
-                response.put("lastLogin", user.getLastLogin());
-                response.put("directorySize", userService.getUserDirectorySize(user));
-                return ResponseEntity.ok(response);
+                // Computed fields, the directory walk above all, are only evaluated when requested
+                UserInfo info = new UserInfo(
+                    user.getId(),
+                    user.getUsername(),
+                    user.getEmail(),
+                    requested.contains("userDirectory") ? userService.getUserDirectory(user) : null,
+                    user.getCreatedAt(),
+                    requested.contains("lastLogin") ? userService.getLastLogin(user) : null,
+                    requested.contains("directorySize") ? userService.getUserDirectorySize(user) : null
+                );
+                MappingJacksonValue body = new MappingJacksonValue(info);
+                body.setFilters(new SimpleFilterProvider()
+                    .addFilter(UserInfo.FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(requested)));
+                return ResponseEntity.ok(body);
             })
             .orElse(ResponseEntity.notFound().build());
     }
@@ -66,12 +153,196 @@ public class AssetController {
     public ResponseEntity<?> getUserDirectoryInfo(@PathVariable String username) {
         return userService.findByUsername(username)
             .map(user -> {
+                StorageUsageSummary usage = userService.getStorageUsage(user);
                 Map<String, Object> response = new HashMap<>();
                 response.put("username", user.getUsername());
-                response.put("userDirectory", user.getUserDirectory());
-                response.put("directorySize", userService.getUserDirectorySize(user));
+                response.put("userDirectory", userService.getUserDirectory(user));
+                response.put("directorySize", usage.getTotalBytes());
+                response.put("fileCount", usage.getTotalFiles());
+                response.put("subdirectories", usage.getSubdirectories());
                 return ResponseEntity.ok(response);
             })
             .orElse(ResponseEntity.notFound().build());
     }
+    
+    @DeleteMapping("/users/{username}")
+    public ResponseEntity<?> deleteUser(@PathVariable String username) {
+        return userService.findByUsername(username)
+            .map(user -> {
+                try {
+                    userService.deleteUser(user.getId());
+                } catch (UserDirectoryDeletionException e) {
+                    return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+                }
+                Map<String, Object> response = new HashMap<>();
+                response.put("message", "User deleted, directory reclaim scheduled");
+                response.put("username", user.getUsername());
+                return ResponseEntity.accepted().body(response);
+            })
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/users/{username}/assets")
+    public ResponseEntity<?> listAssets(@PathVariable String username,
+                                        @RequestParam(required = false) String sort,
+                                        @RequestParam(required = false) String type,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+                                        @RequestParam(required = false) String namePrefix,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "50") int limit) {
+        Optional<User> user = userService.findByUsername(username);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            AssetListPage page = assetQueryService.list(user.get().getId(), AssetListSort.fromParameter(sort),
+                new AssetQueryService.Filter(type, createdFrom, createdTo, namePrefix), cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    @GetMapping("/users/{username}/assets/search")
+    public ResponseEntity<?> searchAssets(@PathVariable String username, @RequestParam String q,
+                                          @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > 100) {
+            return errorResponse(HttpStatus.BAD_REQUEST, "Limit must be between 1 and 100");
+        }
+        return userService.findByUsername(username)
+            .<ResponseEntity<?>>map(user -> ResponseEntity.ok(assetSearchService.search(user, q, limit)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/maintenance/directory-reclaims")
+    public List<ReclaimJobStatus> getDirectoryReclaims() {
+        return directoryReclaimService.getJobs();
+    }
+    
+    @GetMapping("/maintenance/user-cache")
+    public Map<String, UserCacheStats> getUserCacheStats() {
+        return userCacheService.getStats();
+    }
+    
+    @PostMapping("/users/{username}/uploads")
+    public ResponseEntity<?> startUpload(@PathVariable String username,
+                                         @Valid @RequestBody UploadInitRequest request) throws IOException {
+        Optional<User> user = userService.findByUsername(username);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(assetUploadService.startUpload(user.get(), request));
+        } catch (StorageQuotaExceededException e) {
+            return errorResponse(HttpStatus.INSUFFICIENT_STORAGE, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    @PutMapping(value = "/users/{username}/uploads/{uploadId}/chunks/{index}",
+                consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> uploadChunk(@PathVariable String username, @PathVariable String uploadId,
+                                         @PathVariable int index, InputStream body) throws IOException {
+        Optional<User> user = userService.findByUsername(username);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(assetUploadService.writeChunk(user.get(), uploadId, index, body));
+        } catch (UploadNotFoundException e) {
+            return errorResponse(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            return errorResponse(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+    
+    @GetMapping("/users/{username}/uploads/{uploadId}")
+    public ResponseEntity<?> getUploadStatus(@PathVariable String username, @PathVariable String uploadId) {
+        Optional<User> user = userService.findByUsername(username);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(assetUploadService.getStatus(user.get(), uploadId));
+        } catch (UploadNotFoundException e) {
+            return errorResponse(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+    
+    @PostMapping("/users/{username}/uploads/{uploadId}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String username, @PathVariable String uploadId) throws IOException {
+        Optional<User> user = userService.findByUsername(username);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            Asset asset = assetUploadService.completeUpload(user.get(), uploadId);
+            Map<String, Object> response = new HashMap<>();
+            response.put("id", asset.getId());
+            response.put("name", asset.getName());
+            response.put("description", asset.getDescription());
+            response.put("filePath", asset.getFilePath());
+            response.put("fileSize", asset.getFileSize());
+            response.put("fileType", asset.getFileType());
+            response.put("createdAt", asset.getCreatedAt());
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (UploadNotFoundException e) {
+            return errorResponse(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (StorageQuotaExceededException e) {
+            return errorResponse(HttpStatus.INSUFFICIENT_STORAGE, e.getMessage());
+        } catch (IllegalStateException e) {
+            return errorResponse(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+    
+    @DeleteMapping("/users/{username}/uploads/{uploadId}")
+    public ResponseEntity<?> abortUpload(@PathVariable String username, @PathVariable String uploadId) throws IOException {
+        Optional<User> user = userService.findByUsername(username);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            assetUploadService.abortUpload(user.get(), uploadId);
+            return ResponseEntity.noContent().build();
+        } catch (UploadNotFoundException e) {
+            return errorResponse(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+    
+    @RequestMapping(value = "/users/{username}/assets/{assetId}/content", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void downloadAsset(@PathVariable String username, @PathVariable Long assetId,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<Asset> asset = userService.findByUsername(username)
+            .flatMap(user -> assetRepository.findByIdAndUser(assetId, user));
+        if (asset.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        assetDownloadService.serve(asset.get(), request, response);
+    }
+    
+    // A saturated hashing pool becomes a fast 503 the client can retry
+    private ResponseEntity<?> passwordFailure(Throwable failure, HttpStatus fallbackStatus) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+            ? failure.getCause()
+            : failure;
+        if (cause instanceof HashingCapacityExceededException busy) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", busy.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(busy.getRetryAfterSeconds()))
+                .body(error);
+        }
+        return errorResponse(fallbackStatus, cause.getMessage());
+    }
+    
+    private ResponseEntity<Map<String, String>> errorResponse(HttpStatus status, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        return ResponseEntity.status(status).body(error);
+    }
 }
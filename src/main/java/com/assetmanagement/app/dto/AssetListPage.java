@@ -0,0 +1,9 @@
+package com.assetmanagement.app.dto;
+
+import java.util.List;
+
+public record AssetListPage(
+    List<AssetSummary> items,
+    String nextCursor
+) {
+}
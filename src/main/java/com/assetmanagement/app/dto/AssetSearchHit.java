@@ -0,0 +1,9 @@
+package com.assetmanagement.app.dto;
+
+public record AssetSearchHit(
+    long assetId,
+    String name,
+    double score,
+    String match
+) {
+}
@@ -0,0 +1,14 @@
+package com.assetmanagement.app.dto;
+
+import java.time.LocalDateTime;
+
+// The columns list screens show, read straight from the row without an entity or user proxy
+public record AssetSummary(
+    long id,
+    String name,
+    String fileType,
+    Long fileSize,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+}
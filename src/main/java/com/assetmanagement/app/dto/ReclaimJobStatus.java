@@ -0,0 +1,15 @@
+package com.assetmanagement.app.dto;
+
+import java.time.LocalDateTime;
+
+public record ReclaimJobStatus(
+    String id,
+    String state,
+    long filesDeleted,
+    long directoriesDeleted,
+    long bytesReclaimed,
+    LocalDateTime queuedAt,
+    LocalDateTime finishedAt,
+    String error
+) {
+}
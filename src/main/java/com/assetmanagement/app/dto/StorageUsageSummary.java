@@ -0,0 +1,24 @@
+package com.assetmanagement.app.dto;
+
+import java.util.Map;
+
+public class StorageUsageSummary {
+    
+    private final long totalBytes;
+    private final long totalFiles;
+    private final Map<String, SubdirectoryUsage> subdirectories;
+    
+    public StorageUsageSummary(long totalBytes, long totalFiles, Map<String, SubdirectoryUsage> subdirectories) {
+        this.totalBytes = totalBytes;
+        this.totalFiles = totalFiles;
+        this.subdirectories = subdirectories;
+    }
+    
+    // Getters
+    public long getTotalBytes() { return totalBytes; }
+    public long getTotalFiles() { return totalFiles; }
+    public Map<String, SubdirectoryUsage> getSubdirectories() { return subdirectories; }
+    
+    public record SubdirectoryUsage(long bytes, long files) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.assetmanagement.app.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+public class UploadInitRequest {
+    
+    @NotBlank(message = "File name is required")
+    @Size(max = 255, message = "File name must be at most 255 characters")
+    private String fileName;
+    
+    @NotNull(message = "File size is required")
+    @Positive(message = "File size must be positive")
+    private Long fileSize;
+    
+    private String fileType;
+    
+    @NotBlank(message = "Name is required")
+    private String name;
+    
+    @NotBlank(message = "Description is required")
+    private String description;
+    
+    @Positive(message = "Chunk size must be positive")
+    private Integer chunkSize;
+    
+    @Pattern(regexp = "[0-9a-fA-F]{64}", message = "SHA-256 must be 64 hexadecimal characters")
+    private String sha256;
+    
+    // Getters
+    public String getFileName() { return fileName; }
+    public Long getFileSize() { return fileSize; }
+    public String getFileType() { return fileType; }
+    public String getName() { return name; }
+    public String getDescription() { return description; }
+    public Integer getChunkSize() { return chunkSize; }
+    public String getSha256() { return sha256; }
+    
+    // Setters
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+    public void setFileType(String fileType) { this.fileType = fileType; }
+    public void setName(String name) { this.name = name; }
+    public void setDescription(String description) { this.description = description; }
+    public void setChunkSize(Integer chunkSize) { this.chunkSize = chunkSize; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+}
@@ -0,0 +1,15 @@
+package com.assetmanagement.app.dto;
+
+import java.util.List;
+
+public record UploadStatus(
+    String uploadId,
+    String fileName,
+    long fileSize,
+    int chunkSize,
+    int chunkCount,
+    int chunksReceived,
+    List<Integer> missingChunks,
+    Long assetId
+) {
+}
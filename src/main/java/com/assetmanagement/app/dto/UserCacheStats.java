@@ -0,0 +1,10 @@
+package com.assetmanagement.app.dto;
+
+public record UserCacheStats(
+    long estimatedSize,
+    long hitCount,
+    long missCount,
+    double hitRate,
+    long evictionCount
+) {
+}
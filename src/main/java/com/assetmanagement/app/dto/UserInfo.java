@@ -0,0 +1,51 @@
+package com.assetmanagement.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import java.lang.reflect.RecordComponent;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Always written through a MappingJacksonValue carrying the FILTER, which keeps only the requested fields
+@JsonFilter(UserInfo.FILTER)
+public record UserInfo(
+    Long id,
+    String username,
+    String email,
+    String userDirectory,
+    LocalDateTime createdAt,
+    LocalDateTime lastLogin,
+    Long directorySize
+) {
+    
+    public static final String FILTER = "userInfoFields";
+    
+    public static final Set<String> FIELDS = Arrays.stream(UserInfo.class.getRecordComponents())
+        .map(RecordComponent::getName)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    
+    // Parses a comma-separated ?fields= list, where no list means every field
+    public static Set<String> parseFields(String fields) {
+        if (fields == null) {
+            return FIELDS;
+        }
+        Set<String> parsed = new LinkedHashSet<>();
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!FIELDS.contains(trimmed)) {
+                throw new IllegalArgumentException("Unknown field: " + trimmed);
+            }
+            parsed.add(trimmed);
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one of " + String.join(", ", FIELDS));
+        }
+        return parsed;
+    }
+}
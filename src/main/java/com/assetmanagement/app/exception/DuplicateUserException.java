@@ -0,0 +1,8 @@
+package com.assetmanagement.app.exception;
+
+public class DuplicateUserException extends RuntimeException {
+    
+    public DuplicateUserException(String field) {
+        super(field + " already exists");
+    }
+}
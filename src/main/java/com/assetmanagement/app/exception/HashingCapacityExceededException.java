@@ -0,0 +1,15 @@
+package com.assetmanagement.app.exception;
+
+public class HashingCapacityExceededException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public HashingCapacityExceededException(long retryAfterSeconds) {
+        super("Too many password operations in progress, retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
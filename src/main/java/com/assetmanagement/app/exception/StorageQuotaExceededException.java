@@ -0,0 +1,8 @@
+package com.assetmanagement.app.exception;
+
+public class StorageQuotaExceededException extends RuntimeException {
+    
+    public StorageQuotaExceededException(String username, long quotaBytes) {
+        super("Storage quota of " + quotaBytes + " bytes exceeded for user " + username);
+    }
+}
@@ -0,0 +1,8 @@
+package com.assetmanagement.app.exception;
+
+public class UploadNotFoundException extends RuntimeException {
+    
+    public UploadNotFoundException(String uploadId) {
+        super("Upload not found: " + uploadId);
+    }
+}
@@ -0,0 +1,8 @@
+package com.assetmanagement.app.exception;
+
+public class UserDirectoryDeletionException extends RuntimeException {
+    
+    public UserDirectoryDeletionException(String username, Throwable cause) {
+        super("Could not move the directory of user " + username + " to the trash", cause);
+    }
+}
@@ -0,0 +1,137 @@
+package com.assetmanagement.app.journal;
+
+import com.assetmanagement.app.model.User;
+import com.assetmanagement.common.journal.MutationJournal;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+// Durable history of committed user changes, keyed by user id. Password hashes are left out;
+// the journal only carries what projections of users are built from.
+@Component
+@ConditionalOnProperty(name = "app.journal.enabled", havingValue = "true")
+public class UserMutationJournal {
+    
+    private static final Logger log = LoggerFactory.getLogger(UserMutationJournal.class);
+    
+    private static final byte SAVED = 1;
+    
+    private final MutationJournal journal;
+    private final boolean sync;
+    
+    public UserMutationJournal(@Value("${app.journal.directory:journal}") String directory,
+                               @Value("${app.journal.segment-bytes:67108864}") int segmentBytes,
+                               @Value("${app.journal.sync:true}") boolean sync) throws IOException {
+        this.journal = MutationJournal.open(Path.of(directory, "users"), segmentBytes);
+        this.sync = sync;
+    }
+    
+    public void recordSaved(User user) {
+        UserMutation mutation = new UserMutation(user.getId(), user.getUsername(), user.getEmail(),
+            user.getCreatedAt(), false);
+        afterCommit(() -> append(mutation));
+    }
+    
+    public void recordDeleted(User user) {
+        UserMutation mutation = new UserMutation(user.getId(), null, null, null, true);
+        afterCommit(() -> append(mutation));
+    }
+    
+    // Replays changes after the given sequence and returns the last sequence seen
+    public long replay(long afterSequence, Consumer<UserMutation> consumer) {
+        return journal.replay(afterSequence, (sequence, key, type, payload) -> consumer.accept(
+            type == MutationJournal.TOMBSTONE
+                ? new UserMutation(key, null, null, null, true)
+                : decode(key, payload)));
+    }
+    
+    @Scheduled(fixedDelayString = "${app.journal.compaction-interval-ms:3600000}",
+               initialDelayString = "${app.journal.compaction-interval-ms:3600000}")
+    public void compact() {
+        try {
+            journal.compact();
+        } catch (IOException | RuntimeException e) {
+            log.warn("User journal compaction failed", e);
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        journal.close();
+    }
+    
+    // Rolled back changes never reach the journal
+    private void afterCommit(Runnable write) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                write.run();
+            }
+        });
+    }
+    
+    private void append(UserMutation mutation) {
+        try {
+            long sequence = mutation.deleted()
+                ? journal.append(mutation.userId(), MutationJournal.TOMBSTONE, new byte[0])
+                : journal.append(mutation.userId(), SAVED, encode(mutation));
+            if (sync) {
+                journal.awaitDurable(sequence);
+            }
+        } catch (RuntimeException e) {
+            // The change is already committed; failing the request now would not undo it
+            log.error("Could not journal change of user {}", mutation.userId(), e);
+        }
+    }
+    
+    static byte[] encode(UserMutation mutation) {
+        byte[] username = mutation.username().getBytes(StandardCharsets.UTF_8);
+        byte[] email = mutation.email().getBytes(StandardCharsets.UTF_8);
+        LocalDateTime createdAt = mutation.createdAt();
+        return ByteBuffer.allocate(8 + 4 + 4 + username.length + 4 + email.length)
+            .putLong(createdAt == null ? Long.MIN_VALUE : createdAt.toEpochSecond(ZoneOffset.UTC))
+            .putInt(createdAt == null ? 0 : createdAt.getNano())
+            .putInt(username.length).put(username)
+            .putInt(email.length).put(email)
+            .array();
+    }
+    
+    static UserMutation decode(long userId, ByteBuffer payload) {
+        ByteBuffer in = payload.duplicate();
+        long createdSeconds = in.getLong();
+        int createdNanos = in.getInt();
+        String username = readString(in);
+        String email = readString(in);
+        LocalDateTime createdAt = createdSeconds == Long.MIN_VALUE
+            ? null
+            : LocalDateTime.ofEpochSecond(createdSeconds, createdNanos, ZoneOffset.UTC);
+        return new UserMutation(userId, username, email, createdAt, false);
+    }
+    
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    // Fields other than userId are null for a deletion
+    public record UserMutation(long userId, String username, String email, LocalDateTime createdAt, boolean deleted) {
+    }
+}
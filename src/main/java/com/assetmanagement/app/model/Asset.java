@@ -7,14 +7,20 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "assets")
+@Table(name = "assets", indexes = {
+    @Index(name = "idx_assets_user_content_hash", columnList = "user_id, content_hash"),
+    @Index(name = "idx_assets_user_created_at", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_assets_user_file_type_created_at", columnList = "user_id, file_type, created_at, id"),
+    @Index(name = "idx_assets_user_name", columnList = "user_id, name, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Asset {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "asset_seq")
+    @SequenceGenerator(name = "asset_seq", sequenceName = "asset_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -32,6 +38,9 @@ public class Asset {
     @Column(name = "file_type")
     private String fileType;
     
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -0,0 +1,57 @@
+package com.assetmanagement.app.model;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_storage_usage",
+    uniqueConstraints = @UniqueConstraint(name = "uk_storage_usage_user_subdir", columnNames = {"user_id", "subdirectory"}))
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageUsage {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "storage_usage_seq")
+    @SequenceGenerator(name = "storage_usage_seq", sequenceName = "storage_usage_seq", allocationSize = 50)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(nullable = false)
+    private String subdirectory;
+    
+    @Column(nullable = false)
+    private long bytes;
+    
+    @Column(name = "file_count", nullable = false)
+    private long fileCount;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    public User getUser() { return user; }
+    public String getSubdirectory() { return subdirectory; }
+    public long getBytes() { return bytes; }
+    public long getFileCount() { return fileCount; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    
+    // Setters
+    public void setId(Long id) { this.id = id; }
+    public void setUser(User user) { this.user = user; }
+    public void setSubdirectory(String subdirectory) { this.subdirectory = subdirectory; }
+    public void setBytes(long bytes) { this.bytes = bytes; }
+    public void setFileCount(long fileCount) { this.fileCount = fileCount; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
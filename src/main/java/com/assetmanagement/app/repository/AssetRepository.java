@@ -2,13 +2,45 @@ package com.assetmanagement.app.repository;
 
 import com.assetmanagement.app.model.Asset;
 import com.assetmanagement.app.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AssetRepository extends JpaRepository<Asset, Long> {
+    
+    // Closed projection: only id and name are selected, and no entity or user proxy is built
+    interface NameView {
+        Long getId();
+        String getName();
+    }
+    
     List<Asset> findByUser(User user);
+    Optional<Asset> findByIdAndUser(Long id, User user);
+    boolean existsByUserAndContentHash(User user, String contentHash);
     List<Asset> findByUserOrderByCreatedAtDesc(User user);
-    List<Asset> findByUserAndNameContainingIgnoreCase(User user, String name);
+    
+    @Transactional(readOnly = true)
+    List<NameView> findByUserIdAndNameContainingIgnoreCase(Long userId, String name, Limit limit);
+    
+    // Rows are [assetId, userId, name, description]; only what the search index needs
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select a.id, a.user.id, a.name, a.description from Asset a")
+    Stream<Object[]> streamSearchFields();
+    
+    @Modifying
+    @Query("delete from Asset a where a.user = :user")
+    int deleteAllByUser(User user);
 }
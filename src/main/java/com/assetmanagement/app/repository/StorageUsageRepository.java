@@ -0,0 +1,17 @@
+package com.assetmanagement.app.repository;
+
+import com.assetmanagement.app.model.StorageUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface StorageUsageRepository extends JpaRepository<StorageUsage, Long> {
+    List<StorageUsage> findByUserId(Long userId);
+    
+    @Modifying
+    @Query("delete from StorageUsage s where s.user.id = :userId")
+    void deleteByUserId(Long userId);
+}
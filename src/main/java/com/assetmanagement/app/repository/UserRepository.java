@@ -2,7 +2,11 @@ package com.assetmanagement.app.repository;
 
 import com.assetmanagement.app.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +15,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+    boolean existsByUserDirectory(String userDirectory);
+    
+    @Transactional
+    @Modifying
+    @Query("update User u set u.userDirectory = :userDirectory where u.id = :id and u.userDirectory is null")
+    int assignUserDirectory(Long id, String userDirectory);
+    
+    // Native, so they see the deleted users the entity's restriction hides
+    @Query(value = "select user_directory from users where deleted_at is not null", nativeQuery = true)
+    List<String> findDeletedUserDirectories();
+    
+    @Transactional
+    @Modifying
+    @Query(value = "delete from users where user_directory = :userDirectory and deleted_at is not null", nativeQuery = true)
+    int purgeDeleted(String userDirectory);
 }
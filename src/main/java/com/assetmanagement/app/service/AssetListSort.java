@@ -0,0 +1,37 @@
+package com.assetmanagement.app.service;
+
+// Each sort walks one composite index, so listing a user's assets never sorts in memory
+public enum AssetListSort {
+    
+    // Newest first on idx_assets_user_created_at, or idx_assets_user_file_type_created_at when filtered by type
+    CREATED_AT("created_at", "DESC"),
+    
+    // Alphabetical on idx_assets_user_name
+    NAME("name", "ASC");
+    
+    private final String column;
+    private final String direction;
+    
+    AssetListSort(String column, String direction) {
+        this.column = column;
+        this.direction = direction;
+    }
+    
+    public String column() {
+        return column;
+    }
+    
+    public String direction() {
+        return direction;
+    }
+    
+    public static AssetListSort fromParameter(String value) {
+        if (value == null || value.isBlank() || value.equalsIgnoreCase("createdAt")) {
+            return CREATED_AT;
+        }
+        if (value.equalsIgnoreCase("name")) {
+            return NAME;
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + value);
+    }
+}
@@ -0,0 +1,107 @@
+package com.assetmanagement.app.service;
+
+import com.assetmanagement.app.dto.AssetSearchHit;
+import com.assetmanagement.app.model.Asset;
+import com.assetmanagement.app.model.User;
+import com.assetmanagement.app.repository.AssetRepository;
+import com.assetmanagement.common.projection.ProjectionRebuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Search-as-you-type over asset names and descriptions, served from per-user trigram indexes
+// instead of LIKE '%term%' scans
+@Service
+public class AssetSearchService {
+    
+    private static final Logger log = LoggerFactory.getLogger(AssetSearchService.class);
+    
+    @Autowired
+    private AssetRepository assetRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private final ProjectionRebuilder<Mutation> rebuilder = new ProjectionRebuilder<>();
+    private final Map<Long, TrigramIndex> indexes = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    
+    public List<AssetSearchHit> search(User user, String query, int limit) {
+        if (!ready) {
+            // Until the startup build finishes, answer from the database
+            return assetRepository.findByUserIdAndNameContainingIgnoreCase(user.getId(), query.trim(), Limit.of(limit))
+                .stream()
+                .map(asset -> new AssetSearchHit(asset.getId(), asset.getName(), 0, "substring"))
+                .toList();
+        }
+        TrigramIndex index = indexes.get(user.getId());
+        return index == null ? List.of() : index.search(query, limit);
+    }
+    
+    public void index(Asset asset) {
+        apply(new Mutation(asset.getUser().getId(), asset.getId(), asset.getName(), asset.getDescription()));
+    }
+    
+    public void removeUser(User user) {
+        apply(new Mutation(user.getId(), null, null, null));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        Map<Long, TrigramIndex> rebuilt;
+        try {
+            // Replaying mutations the scan already saw is harmless since puts replace by asset id
+            rebuilt = rebuilder.rebuild(this::loadIndexes, (loaded, mutation) -> mutation.applyTo(loaded), loaded -> {
+                indexes.clear();
+                indexes.putAll(loaded);
+                ready = true;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Asset search index build failed, searches fall back to the database", e);
+            return;
+        }
+        log.info("Indexed assets of {} users for search in {} ms", rebuilt.size(),
+            (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    private Map<Long, TrigramIndex> loadIndexes() {
+        Map<Long, TrigramIndex> loaded = new HashMap<>();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = assetRepository.streamSearchFields()) {
+                rows.forEach(row -> loaded.computeIfAbsent((Long) row[1], id -> new TrigramIndex())
+                    .put((Long) row[0], (String) row[2], (String) row[3]));
+            }
+        });
+        return loaded;
+    }
+    
+    private void apply(Mutation mutation) {
+        rebuilder.apply(mutation, live -> live.applyTo(indexes));
+    }
+    
+    // Without an asset id the mutation drops the user's whole index
+    private record Mutation(Long userId, Long assetId, String name, String description) {
+    
+        void applyTo(Map<Long, TrigramIndex> indexes) {
+            if (assetId == null) {
+                indexes.remove(userId);
+            } else {
+                indexes.computeIfAbsent(userId, id -> new TrigramIndex()).put(assetId, name, description);
+            }
+        }
+    }
+}
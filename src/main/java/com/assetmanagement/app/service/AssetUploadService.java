@@ -0,0 +1,441 @@
+package com.assetmanagement.app.service;
+
+import com.assetmanagement.app.dto.UploadInitRequest;
+import com.assetmanagement.app.dto.UploadStatus;
+import com.assetmanagement.app.exception.UploadNotFoundException;
+import com.assetmanagement.app.model.Asset;
+import com.assetmanagement.app.model.User;
+import com.assetmanagement.app.repository.AssetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Resumable chunked uploads streamed straight to disk; chunks may arrive in any order and in parallel
+@Service
+public class AssetUploadService {
+    
+    private static final Logger log = LoggerFactory.getLogger(AssetUploadService.class);
+    private static final Set<String> ARCHIVE_TYPES = Set.of(
+        "application/zip", "application/gzip", "application/x-gzip", "application/x-tar",
+        "application/x-7z-compressed", "application/x-rar-compressed", "application/vnd.rar");
+    
+    @Autowired
+    private AssetRepository assetRepository;
+    
+    @Autowired
+    private StorageLedgerService storageLedgerService;
+    
+    @Autowired
+    private BlobStoreService blobStoreService;
+    
+    @Autowired
+    private AssetSearchService assetSearchService;
+    
+    @Autowired
+    private UserDirectoryService userDirectoryService;
+    
+    @Value("${app.user.directories.base-path:user-data}")
+    private String baseDirectory;
+    
+    @Value("${app.user.storage.dedup.cross-user-instant:false}")
+    private boolean crossUserInstant;
+    
+    @Value("${app.uploads.chunk-size:8388608}")
+    private int defaultChunkSize;
+    
+    @Value("${app.uploads.max-chunk-size:67108864}")
+    private int maxChunkSize;
+    
+    @Value("${app.uploads.session-ttl-ms:86400000}")
+    private long sessionTtlMillis;
+    
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+    
+    public UploadStatus startUpload(User user, UploadInitRequest request) throws IOException {
+        int chunkSize = request.getChunkSize() == null ? defaultChunkSize : request.getChunkSize();
+        if (chunkSize > maxChunkSize) {
+            throw new IllegalArgumentException("Chunk size must be at most " + maxChunkSize + " bytes");
+        }
+        long chunkCount = (request.getFileSize() + chunkSize - 1) / chunkSize;
+        if (chunkCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many chunks, use a larger chunk size");
+        }
+        storageLedgerService.checkQuota(user, request.getFileSize());
+        userDirectoryService.ensureUserDirectory(user);
+        
+        String fileName = sanitizeFileName(request.getFileName());
+        String fileType = request.getFileType() != null && !request.getFileType().isBlank()
+            ? request.getFileType()
+            : MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+        String sha256 = request.getSha256() == null ? null : request.getSha256().toLowerCase(Locale.ROOT);
+        
+        if (sha256 != null && canCompleteInstantly(user, sha256, request.getFileSize())) {
+            Path target = placeUnderFreeName(user, fileType, fileName, free -> blobStoreService.linkInto(sha256, free));
+            storageLedgerService.recordWrite(user, subdirectoryFor(fileType), Files.size(target));
+            Asset asset = saveAsset(user, request.getName(), request.getDescription(), target,
+                request.getFileSize(), fileType, sha256);
+            return new UploadStatus(null, fileName, request.getFileSize(), chunkSize, (int) chunkCount,
+                (int) chunkCount, List.of(), asset.getId());
+        }
+        
+        String uploadId = UUID.randomUUID().toString();
+        Path tempDirectory = Paths.get(user.getUserDirectory()).resolve("temp");
+        Files.createDirectories(tempDirectory);
+        Path tempFile = tempDirectory.resolve(uploadId + ".part");
+        Files.createFile(tempFile);
+        
+        UploadSession session = new UploadSession(uploadId, user.getId(), fileName, fileType,
+            request.getName(), request.getDescription(), request.getFileSize(), chunkSize, (int) chunkCount, tempFile,
+            sha256, blobStoreService.isEnabled() ? blobStoreService.newDigest() : null);
+        sessions.put(uploadId, session);
+        return session.toStatus();
+    }
+    
+    public UploadStatus writeChunk(User user, String uploadId, int index, InputStream body) throws IOException {
+        UploadSession session = sessionFor(user, uploadId);
+        if (index < 0 || index >= session.chunkCount) {
+            throw new IllegalArgumentException("Chunk index must be between 0 and " + (session.chunkCount - 1));
+        }
+        long position = (long) index * session.chunkSize;
+        long expected = Math.min(session.chunkSize, session.fileSize - position);
+        
+        // Chunks arriving in order are hashed as they stream in; anything else is hashed on completion.
+        // A chunk is written once: rewriting one would leave the running digest covering old bytes.
+        MessageDigest digest = session.beginChunk(index);
+        InputStream input = digest == null ? body : new DigestInputStream(body, digest);
+        
+        // Positional writes let several chunks of the same file be written concurrently
+        try (FileChannel channel = FileChannel.open(session.tempFile, StandardOpenOption.WRITE)) {
+            ReadableByteChannel source = Channels.newChannel(input);
+            long written = 0;
+            while (written < expected) {
+                long transferred = channel.transferFrom(source, position + written, expected - written);
+                if (transferred <= 0) {
+                    break;
+                }
+                written += transferred;
+            }
+            if (written != expected || input.read() != -1) {
+                throw new IllegalArgumentException("Chunk " + index + " must be exactly " + expected + " bytes");
+            }
+        } catch (IOException | RuntimeException e) {
+            session.abandonChunk(index);
+            throw e;
+        }
+        
+        session.markReceived(index, digest);
+        return session.toStatus();
+    }
+    
+    public UploadStatus getStatus(User user, String uploadId) {
+        return sessionFor(user, uploadId).toStatus();
+    }
+    
+    public Asset completeUpload(User user, String uploadId) throws IOException {
+        UploadSession session = sessionFor(user, uploadId);
+        int missing = session.missingChunkCount();
+        if (missing > 0) {
+            throw new IllegalStateException("Upload is missing " + missing + " chunks");
+        }
+        // Checked while the session still exists, so a rejected upload can be aborted or expire
+        storageLedgerService.checkQuota(user, session.fileSize);
+        if (!sessions.remove(uploadId, session)) {
+            throw new UploadNotFoundException(uploadId);
+        }
+        
+        try (FileChannel channel = FileChannel.open(session.tempFile, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        
+        String contentHash = null;
+        MessageDigest digest = session.digest();
+        if (digest != null) {
+            contentHash = blobStoreService.finishHash(digest, session.tempFile, session.hashedBytes());
+            if (session.sha256 != null && !session.sha256.equals(contentHash)) {
+                Files.deleteIfExists(session.tempFile);
+                throw new IllegalArgumentException("Uploaded content does not match the declared SHA-256");
+            }
+        }
+        
+        String hash = contentHash;
+        Path target = placeUnderFreeName(user, session.fileType, session.fileName, free -> {
+            if (hash == null || !blobStoreService.storeAndLink(session.tempFile, hash, free)) {
+                moveExclusively(session.tempFile, free);
+            }
+        });
+        storageLedgerService.recordWrite(user, subdirectoryFor(session.fileType), session.fileSize);
+        return saveAsset(user, session.name, session.description, target, session.fileSize, session.fileType, contentHash);
+    }
+    
+    public void abortUpload(User user, String uploadId) throws IOException {
+        UploadSession session = sessionFor(user, uploadId);
+        if (sessions.remove(uploadId, session)) {
+            Files.deleteIfExists(session.tempFile);
+        }
+    }
+    
+    // Runs once at startup too, which is when sessions lost with the previous process are cleared
+    @Scheduled(fixedDelayString = "${app.uploads.cleanup-interval-ms:600000}")
+    public void expireAbandonedUploads() {
+        long cutoff = System.currentTimeMillis() - sessionTtlMillis;
+        sessions.values().removeIf(session -> {
+            if (session.lastActivity >= cutoff) {
+                return false;
+            }
+            try {
+                Files.deleteIfExists(session.tempFile);
+            } catch (IOException e) {
+                log.warn("Could not delete abandoned upload {}", session.tempFile, e);
+            }
+            return true;
+        });
+        deleteOrphanedParts(cutoff);
+    }
+    
+    // Sessions live in memory only, so after a restart their .part files have no session to expire
+    // them; any not written to within the session TTL and not belonging to a live session are removed.
+    // The ledger stops counting them at the user's next rescan.
+    private void deleteOrphanedParts(long cutoff) {
+        Path basePath = Paths.get(baseDirectory);
+        if (!Files.isDirectory(basePath)) {
+            return;
+        }
+        try (DirectoryStream<Path> userDirectories = Files.newDirectoryStream(basePath, Files::isDirectory)) {
+            for (Path userDirectory : userDirectories) {
+                Path tempDirectory = userDirectory.resolve("temp");
+                if (!Files.isDirectory(tempDirectory)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> parts = Files.newDirectoryStream(tempDirectory, "*.part")) {
+                    for (Path part : parts) {
+                        String name = part.getFileName().toString();
+                        String uploadId = name.substring(0, name.length() - ".part".length());
+                        if (!sessions.containsKey(uploadId) && Files.getLastModifiedTime(part).toMillis() < cutoff) {
+                            Files.deleteIfExists(part);
+                        }
+                    }
+                } catch (IOException e) {
+                    log.warn("Could not sweep abandoned uploads in {}", tempDirectory, e);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not sweep abandoned uploads under {}", basePath, e);
+        }
+    }
+    
+    // Users may always re-link content they already own; linking another user's content
+    // without uploading it would reveal that the file exists, so that is opt-in
+    private boolean canCompleteInstantly(User user, String sha256, long fileSize) throws IOException {
+        if (!blobStoreService.isEnabled() || !blobStoreService.contains(sha256)) {
+            return false;
+        }
+        if (!crossUserInstant && !assetRepository.existsByUserAndContentHash(user, sha256)) {
+            return false;
+        }
+        return blobStoreService.size(sha256) == fileSize;
+    }
+    
+    // Placing the file is what claims the name: placement fails with FileAlreadyExistsException instead of
+    // replacing, so two uploads of the same name racing here never end up sharing one file
+    private Path placeUnderFreeName(User user, String fileType, String fileName, Placement placement) throws IOException {
+        Path targetDirectory = Paths.get(user.getUserDirectory()).resolve(subdirectoryFor(fileType));
+        Files.createDirectories(targetDirectory);
+        Path target = targetDirectory.resolve(fileName);
+        while (true) {
+            try {
+                placement.placeAt(target);
+                return target;
+            } catch (FileAlreadyExistsException e) {
+                target = targetDirectory.resolve(UUID.randomUUID().toString().substring(0, 8) + "_" + fileName);
+            }
+        }
+    }
+    
+    // rename(2) silently replaces an existing target, so the name is taken with a link (or an empty
+    // placeholder where links are unavailable) before the source is let go
+    private static void moveExclusively(Path source, Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            if (e instanceof FileAlreadyExistsException) {
+                throw (FileAlreadyExistsException) e;
+            }
+            Files.createFile(target);
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return;
+        }
+        Files.delete(source);
+    }
+    
+    private Asset saveAsset(User user, String name, String description, Path target, long fileSize,
+                            String fileType, String contentHash) {
+        Asset asset = new Asset();
+        asset.setName(name);
+        asset.setDescription(description);
+        asset.setFilePath(target.toString());
+        asset.setFileSize(fileSize);
+        asset.setFileType(fileType);
+        asset.setContentHash(contentHash);
+        asset.setUser(user);
+        Asset saved = assetRepository.save(asset);
+        assetSearchService.index(saved);
+        return saved;
+    }
+    
+    static String subdirectoryFor(String fileType) {
+        String type = fileType == null ? "" : fileType.toLowerCase();
+        if (type.startsWith("image/")) {
+            return "images";
+        }
+        if (type.startsWith("video/")) {
+            return "videos";
+        }
+        if (type.startsWith("audio/")) {
+            return "audio";
+        }
+        if (ARCHIVE_TYPES.contains(type)) {
+            return "archives";
+        }
+        return "documents";
+    }
+    
+    private UploadSession sessionFor(User user, String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null || !session.userId.equals(user.getId())) {
+            throw new UploadNotFoundException(uploadId);
+        }
+        session.lastActivity = System.currentTimeMillis();
+        return session;
+    }
+    
+    private String sanitizeFileName(String fileName) {
+        String baseName = Paths.get(fileName).getFileName().toString();
+        String sanitized = baseName.replaceAll("[^a-zA-Z0-9._-]", "_");
+        if (sanitized.isEmpty() || sanitized.startsWith(".")) {
+            sanitized = "file" + sanitized;
+        }
+        return sanitized;
+    }
+    
+    @FunctionalInterface
+    private interface Placement {
+        void placeAt(Path target) throws IOException;
+    }
+    
+    private static final class UploadSession {
+        private final String uploadId;
+        private final Long userId;
+        private final String fileName;
+        private final String fileType;
+        private final String name;
+        private final String description;
+        private final long fileSize;
+        private final int chunkSize;
+        private final int chunkCount;
+        private final Path tempFile;
+        private final BitSet received;
+        private final BitSet writing;
+        private final String sha256;
+        private MessageDigest digest;
+        private int hashedChunks;
+        private volatile long lastActivity = System.currentTimeMillis();
+        
+        UploadSession(String uploadId, Long userId, String fileName, String fileType, String name,
+                      String description, long fileSize, int chunkSize, int chunkCount, Path tempFile,
+                      String sha256, MessageDigest digest) {
+            this.uploadId = uploadId;
+            this.userId = userId;
+            this.fileName = fileName;
+            this.fileType = fileType;
+            this.name = name;
+            this.description = description;
+            this.fileSize = fileSize;
+            this.chunkSize = chunkSize;
+            this.chunkCount = chunkCount;
+            this.tempFile = tempFile;
+            this.received = new BitSet(chunkCount);
+            this.writing = new BitSet(chunkCount);
+            this.sha256 = sha256;
+            this.digest = digest;
+        }
+        
+        // Claims the chunk for writing and returns a copy of the running digest if it is the next one
+        // in sequence, otherwise null. A chunk already received or being written cannot be claimed.
+        synchronized MessageDigest beginChunk(int index) {
+            if (received.get(index) || writing.get(index)) {
+                throw new IllegalStateException("Chunk " + index + " has already been received");
+            }
+            writing.set(index);
+            if (digest == null || index != hashedChunks) {
+                return null;
+            }
+            try {
+                return (MessageDigest) digest.clone();
+            } catch (CloneNotSupportedException e) {
+                return null;
+            }
+        }
+        
+        // A failed write leaves the chunk missing, so it can be sent again
+        synchronized void abandonChunk(int index) {
+            writing.clear(index);
+        }
+        
+        synchronized void markReceived(int index, MessageDigest chunkDigest) {
+            writing.clear(index);
+            received.set(index);
+            if (chunkDigest != null && index == hashedChunks) {
+                digest = chunkDigest;
+                hashedChunks++;
+            }
+        }
+        
+        synchronized MessageDigest digest() {
+            return digest;
+        }
+        
+        synchronized long hashedBytes() {
+            return Math.min((long) hashedChunks * chunkSize, fileSize);
+        }
+        
+        synchronized int missingChunkCount() {
+            return chunkCount - received.cardinality();
+        }
+        
+        synchronized UploadStatus toStatus() {
+            List<Integer> missing = new ArrayList<>();
+            for (int i = received.nextClearBit(0); i < chunkCount && missing.size() < 1000; i = received.nextClearBit(i + 1)) {
+                missing.add(i);
+            }
+            return new UploadStatus(uploadId, fileName, fileSize, chunkSize, chunkCount, received.cardinality(), missing, null);
+        }
+    }
+}
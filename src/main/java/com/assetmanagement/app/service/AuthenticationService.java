@@ -0,0 +1,60 @@
+package com.assetmanagement.app.service;
+
+import com.assetmanagement.app.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Registration and login with hashing on the bounded hashing pool; the database work that
+// follows runs on the application task executor rather than on a hashing thread
+@Service
+public class AuthenticationService {
+    
+    private static final Logger log = LoggerFactory.getLogger(AuthenticationService.class);
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor taskExecutor;
+    
+    public CompletableFuture<User> register(String username, String email, String password) {
+        return passwordHashingService.encode(password)
+            .thenApplyAsync(passwordHash -> userService.registerUser(username, email, passwordHash), taskExecutor);
+    }
+    
+    public CompletableFuture<Optional<User>> login(String username, String password) {
+        Optional<User> user = userService.findByUsername(username);
+        return passwordHashingService.matches(password, user.map(User::getPassword).orElse(null))
+            .thenApplyAsync(matched -> {
+                if (!matched || user.isEmpty()) {
+                    return Optional.<User>empty();
+                }
+                User authenticated = user.get();
+                userService.updateLastLogin(authenticated);
+                if (passwordHashingService.needsUpgrade(authenticated.getPassword())) {
+                    upgradeHash(authenticated, password);
+                }
+                return Optional.of(authenticated);
+            }, taskExecutor);
+    }
+    
+    // Best effort: if the hashing pool is busy the hash is upgraded on a later login instead
+    private void upgradeHash(User user, String password) {
+        passwordHashingService.encode(password)
+            .thenAcceptAsync(passwordHash -> userService.updatePasswordHash(user.getId(), passwordHash), taskExecutor)
+            .exceptionally(e -> {
+                log.debug("Password hash upgrade for user {} skipped", user.getId(), e);
+                return null;
+            });
+    }
+}
@@ -0,0 +1,171 @@
+package com.assetmanagement.app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// Optional content-addressed storage: each distinct file body is stored once under .blobs and
+// hard-linked into user directories, so the filesystem link count doubles as the reference count
+@Service
+public class BlobStoreService {
+    
+    public static final String BLOB_DIRECTORY = ".blobs";
+    
+    private static final Logger log = LoggerFactory.getLogger(BlobStoreService.class);
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+    private static final int HASH_BUFFER_SIZE = 1024 * 1024;
+    
+    @Value("${app.user.directories.base-path:user-data}")
+    private String baseDirectory;
+    
+    @Value("${app.user.storage.dedup.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.user.storage.dedup.gc-grace-ms:600000}")
+    private long gcGraceMillis;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public static boolean isValidHash(String sha256) {
+        return sha256 != null && SHA256.matcher(sha256).matches();
+    }
+    
+    public MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    // Completes a digest that already covers the first fromOffset bytes of the file
+    public String finishHash(MessageDigest digest, Path file, long fromOffset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file)) {
+            long position = fromOffset;
+            while (channel.read(buffer, position) > 0 || buffer.position() > 0) {
+                buffer.flip();
+                position += buffer.remaining();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    public boolean contains(String sha256) {
+        return isValidHash(sha256) && Files.isRegularFile(blobPath(sha256));
+    }
+    
+    public long size(String sha256) throws IOException {
+        return Files.size(blobPath(sha256));
+    }
+    
+    // Stores the file's content under .blobs unless it is already there and hard-links target to the blob.
+    // Returns false, with the file left in place for the caller to move, when target cannot be linked.
+    public boolean storeAndLink(Path file, String sha256, Path target) throws IOException {
+        Path blob = blobPath(sha256);
+        Files.createDirectories(blob.getParent());
+        try {
+            // createLink fails if the blob exists, which makes "store if absent" atomic
+            Files.createLink(blob, file);
+        } catch (FileAlreadyExistsException e) {
+            // Same content uploaded before; target links to the stored copy instead, once it is confirmed
+            // to hold exactly these bytes so a bad stored copy can never stand in for an upload
+            if (Files.size(blob) != Files.size(file) || Files.mismatch(blob, file) != -1) {
+                log.warn("Stored blob {} does not match the upload for {}, storing without deduplication", sha256, target);
+                return false;
+            }
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            log.warn("Hard links unavailable for {}, storing without deduplication", target, e);
+            return false;
+        }
+        try {
+            Files.createLink(target, blob);
+        } catch (FileAlreadyExistsException e) {
+            throw e;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            // An old stored copy can be swept before it is linked; the upload is still intact in file
+            log.warn("Could not link {} to blob {}, storing without deduplication", target, sha256, e);
+            return false;
+        }
+        // Only dropped once target holds the content, so a sweep can never take the last copy
+        Files.delete(file);
+        return true;
+    }
+    
+    public void linkInto(String sha256, Path target) throws IOException {
+        Path blob = blobPath(sha256);
+        try {
+            Files.createLink(target, blob);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            if (e instanceof FileAlreadyExistsException) {
+                throw (FileAlreadyExistsException) e;
+            }
+            Files.copy(blob, target);
+        }
+    }
+    
+    public long referenceCount(Path blob) throws IOException {
+        return ((Number) Files.getAttribute(blob, "unix:nlink")).longValue() - 1;
+    }
+    
+    // Frees blobs no user directory links to any more; recently touched blobs are left alone
+    // so a blob is never removed between being stored and being linked
+    @Scheduled(fixedDelayString = "${app.user.storage.dedup.gc-interval-ms:3600000}")
+    public void sweepUnreferencedBlobs() {
+        Path root = Paths.get(baseDirectory).resolve(BLOB_DIRECTORY);
+        if (!enabled || !Files.isDirectory(root)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - gcGraceMillis;
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path blob, BasicFileAttributes attrs) throws IOException {
+                    FileTime changed = (FileTime) Files.getAttribute(blob, "unix:ctime");
+                    if (changed.to(TimeUnit.MILLISECONDS) < cutoff && referenceCount(blob) == 0) {
+                        Files.deleteIfExists(blob);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+                
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("Blob sweep failed", e);
+        }
+    }
+    
+    private Path blobPath(String sha256) {
+        return Paths.get(baseDirectory).resolve(BLOB_DIRECTORY)
+            .resolve(sha256.substring(0, 2))
+            .resolve(sha256.substring(2, 4))
+            .resolve(sha256);
+    }
+}
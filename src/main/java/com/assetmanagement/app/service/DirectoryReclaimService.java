@@ -0,0 +1,276 @@
+package com.assetmanagement.app.service;
+
+import com.assetmanagement.app.dto.ReclaimJobStatus;
+import com.assetmanagement.app.repository.UserRepository;
+import com.assetmanagement.common.config.IoThreadFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Second phase of directory deletion: reclaims trashed directories in the background, then removes
+// the tombstone of the user that owned one
+@Service
+public class DirectoryReclaimService {
+    
+    public static final String TRASH_DIRECTORY = ".trash";
+    
+    private static final Logger log = LoggerFactory.getLogger(DirectoryReclaimService.class);
+    private static final int MAX_FINISHED_JOBS = 100;
+    
+    @Value("${app.user.directories.base-path:user-data}")
+    private String baseDirectory;
+    
+    @Value("${app.user.directories.reclaim.max-deletes-per-second:2000}")
+    private int maxDeletesPerSecond;
+    
+    private final Map<String, ReclaimJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService jobExecutor;
+    private final ExecutorService workerExecutor;
+    private final Object throttleLock = new Object();
+    private final MeterRegistry meterRegistry;
+    private final UserRepository userRepository;
+    private long nextDeleteAt;
+    
+    public DirectoryReclaimService(@Value("${app.user.directories.reclaim.parallelism:2}") int parallelism,
+                                   IoThreadFactory ioThreadFactory, MeterRegistry meterRegistry,
+                                   UserRepository userRepository) {
+        this.meterRegistry = meterRegistry;
+        this.userRepository = userRepository;
+        this.jobExecutor = Executors.newSingleThreadExecutor(ioThreadFactory.named("directory-reclaim"));
+        this.workerExecutor = Executors.newFixedThreadPool(parallelism, ioThreadFactory.named("directory-reclaim-worker"));
+    }
+    
+    // Atomic rename on the same filesystem, so the user directory disappears instantly
+    public Path moveToTrash(Path directory) throws IOException {
+        Path trash = Paths.get(baseDirectory).resolve(TRASH_DIRECTORY);
+        Files.createDirectories(trash);
+        Path target = trash.resolve(directory.getFileName() + "_" + System.currentTimeMillis());
+        return Files.move(directory, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    public void restore(Path trashed, Path original) throws IOException {
+        Files.move(trashed, original, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    public void scheduleReclaim(Path trashed) {
+        String id = trashed.getFileName().toString();
+        ReclaimJob existing = jobs.get(id);
+        if (existing != null && !"FAILED".equals(existing.state)) {
+            return;
+        }
+        ReclaimJob job = new ReclaimJob(id);
+        jobs.put(id, job);
+        pruneFinishedJobs();
+        jobExecutor.execute(() -> run(job, trashed));
+    }
+    
+    public List<ReclaimJobStatus> getJobs() {
+        List<ReclaimJobStatus> statuses = new ArrayList<>();
+        jobs.values().forEach(job -> statuses.add(job.toStatus()));
+        statuses.sort(Comparator.comparing(ReclaimJobStatus::queuedAt));
+        return statuses;
+    }
+    
+    // Anything still in the trash was interrupted by a restart, so pick it up again
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingReclaims() {
+        // A restart between deleting a directory and its tombstone leaves the tombstone behind
+        for (String directory : userRepository.findDeletedUserDirectories()) {
+            if (directory != null && !Files.exists(Paths.get(directory))) {
+                userRepository.purgeDeleted(directory);
+            }
+        }
+        
+        Path trash = Paths.get(baseDirectory).resolve(TRASH_DIRECTORY);
+        if (!Files.isDirectory(trash)) {
+            return;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(trash)) {
+            for (Path entry : entries) {
+                scheduleReclaim(entry);
+            }
+        } catch (IOException e) {
+            log.warn("Could not list trash directory {}", trash, e);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        workerExecutor.shutdownNow();
+    }
+    
+    private void run(ReclaimJob job, Path trashed) {
+        job.state = "RUNNING";
+        long started = System.nanoTime();
+        try {
+            // Subtrees are independent, so spread them across the worker pool
+            List<Future<?>> subtrees = new ArrayList<>();
+            if (Files.isDirectory(trashed)) {
+                try (DirectoryStream<Path> children = Files.newDirectoryStream(trashed)) {
+                    for (Path child : children) {
+                        subtrees.add(workerExecutor.submit(() -> {
+                            deleteTree(child, job);
+                            return null;
+                        }));
+                    }
+                }
+            }
+            for (Future<?> subtree : subtrees) {
+                subtree.get();
+            }
+            deleteTree(trashed, job);
+            userRepository.purgeDeleted(trashed.toString());
+            job.finish("COMPLETED", null);
+            meterRegistry.timer("user.directory.walk", "purpose", "reclaim").record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            meterRegistry.summary("user.directory.walk.files", "purpose", "reclaim")
+                .record(job.filesDeleted.get() + job.directoriesDeleted.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Interrupted, will resume on next start");
+        } catch (ExecutionException e) {
+            job.fail(e.getCause().getMessage());
+            log.warn("Reclaiming {} failed", trashed, e.getCause());
+        } catch (IOException | RuntimeException e) {
+            job.fail(e.getMessage());
+            log.warn("Reclaiming {} failed", trashed, e);
+        }
+    }
+    
+    private void deleteTree(Path root, ReclaimJob job) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                throttle();
+                // A deduplicated file shares its blocks with the blob store, so only the last link frees them
+                boolean lastLink = linkCount(file) <= 1;
+                deleteIfExists(file);
+                job.filesDeleted.incrementAndGet();
+                if (lastLink) {
+                    job.bytesReclaimed.addAndGet(attrs.size());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+            
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                if (e != null) {
+                    throw e;
+                }
+                throttle();
+                deleteIfExists(dir);
+                job.directoriesDeleted.incrementAndGet();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+    
+    private static long linkCount(Path file) {
+        try {
+            return ((Number) Files.getAttribute(file, "unix:nlink", LinkOption.NOFOLLOW_LINKS)).longValue();
+        } catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+            return 1;
+        }
+    }
+    
+    private void deleteIfExists(Path path) throws IOException {
+        try {
+            Files.delete(path);
+        } catch (NoSuchFileException e) {
+            // Already gone, e.g. removed by an earlier interrupted run
+        }
+    }
+    
+    // Spaces deletes evenly so reclaiming a huge account does not saturate the disk
+    private void throttle() throws IOException {
+        if (maxDeletesPerSecond <= 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (throttleLock) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextDeleteAt);
+            nextDeleteAt = slot + TimeUnit.SECONDS.toNanos(1) / maxDeletesPerSecond;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            LockSupport.parkNanos(waitNanos);
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new IOException("Reclaim interrupted");
+        }
+    }
+    
+    private void pruneFinishedJobs() {
+        if (jobs.size() <= MAX_FINISHED_JOBS) {
+            return;
+        }
+        jobs.values().stream()
+            .filter(job -> job.finishedAt != null)
+            .sorted(Comparator.comparing(job -> job.finishedAt))
+            .limit(jobs.size() - MAX_FINISHED_JOBS)
+            .forEach(job -> jobs.remove(job.id));
+    }
+    
+    private static final class ReclaimJob {
+        private final String id;
+        private final LocalDateTime queuedAt = LocalDateTime.now();
+        private final AtomicLong filesDeleted = new AtomicLong();
+        private final AtomicLong directoriesDeleted = new AtomicLong();
+        private final AtomicLong bytesReclaimed = new AtomicLong();
+        private volatile String state = "QUEUED";
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+        
+        ReclaimJob(String id) {
+            this.id = id;
+        }
+        
+        void fail(String message) {
+            finish("FAILED", message);
+        }
+        
+        void finish(String finalState, String message) {
+            error = message;
+            finishedAt = LocalDateTime.now();
+            state = finalState;
+        }
+        
+        ReclaimJobStatus toStatus() {
+            return new ReclaimJobStatus(id, state, filesDeleted.get(), directoriesDeleted.get(),
+                bytesReclaimed.get(), queuedAt, finishedAt, error);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.assetmanagement.app.service;
+
+import com.assetmanagement.app.model.User;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Write-behind for last-login timestamps: logins only touch memory, and the latest value per
+// user is written in one batched UPDATE at most max-staleness-ms later
+@Service
+public class LastLoginBuffer {
+    
+    private static final Logger log = LoggerFactory.getLogger(LastLoginBuffer.class);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private UserCacheService userCacheService;
+    
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    
+    public LocalDateTime recordLogin(User user) {
+        return pending.merge(user.getId(), LocalDateTime.now(), (previous, latest) -> latest.isAfter(previous) ? latest : previous);
+    }
+    
+    // Buffered value if it is newer than what the caller loaded from the database or cache
+    public LocalDateTime lastLoginOf(User user) {
+        LocalDateTime buffered = pending.get(user.getId());
+        LocalDateTime stored = user.getLastLogin();
+        if (buffered == null) {
+            return stored;
+        }
+        return stored == null || buffered.isAfter(stored) ? buffered : stored;
+    }
+    
+    public void forget(User user) {
+        pending.remove(user.getId());
+    }
+    
+    public int getPendingCount() {
+        return pending.size();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.user.last-login.max-staleness-ms:5000}")
+    public void flush() {
+        synchronized (flushLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Map<Long, LocalDateTime> batch = new HashMap<>(pending);
+            List<Object[]> arguments = new ArrayList<>(batch.size());
+            batch.forEach((userId, lastLogin) -> arguments.add(new Object[] { Timestamp.valueOf(lastLogin), userId }));
+            try {
+                jdbcTemplate.batchUpdate("UPDATE users SET last_login = ? WHERE id = ?", arguments);
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush {} last-login updates, will retry", batch.size(), e);
+                return;
+            }
+            // Evict before dropping the buffered value so readers never fall back to a stale cached copy;
+            // entries that changed since the snapshot stay for the next flush
+            batch.forEach((userId, lastLogin) -> {
+                userCacheService.invalidateById(userId);
+                pending.remove(userId, lastLogin);
+            });
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,112 @@
+package com.assetmanagement.app.service;
+
+import com.assetmanagement.app.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Runs bcrypt off the request threads on a pool sized to the CPU count. The queue is bounded,
+// so a sign-up burst is turned away quickly instead of starving every other request.
+@Service
+public class PasswordHashingService {
+    
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final String unknownUserHash;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejections;
+    
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.security.hashing.threads:0}") int threads,
+                                  @Value("${app.security.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.security.hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.passwordEncoder = passwordEncoder;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.unknownUserHash = passwordEncoder.encode(UUID.randomUUID().toString());
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), daemonThreads("password-hashing"),
+            new ThreadPoolExecutor.AbortPolicy());
+    
+        this.encodeTimer = meterRegistry.timer("password.hashing", "operation", "encode");
+        this.matchTimer = meterRegistry.timer("password.hashing", "operation", "matches");
+        this.queueWaitTimer = meterRegistry.timer("password.hashing.queue.wait");
+        this.rejections = meterRegistry.counter("password.hashing.rejected");
+        Gauge.builder("password.hashing.queue.depth", this, PasswordHashingService::getQueueDepth).register(meterRegistry);
+        Gauge.builder("password.hashing.active", this, PasswordHashingService::getActiveCount).register(meterRegistry);
+    }
+    
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+    
+    // A missing hash is checked against a throwaway one, so unknown usernames cost the same time
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            return submit(matchTimer, () -> {
+                passwordEncoder.matches(rawPassword, unknownUserHash);
+                return false;
+            });
+        }
+        return submit(matchTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+    
+    // True when the hash was made with a lower cost than the one currently configured
+    public boolean needsUpgrade(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+    
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+    
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    // Time spent queued is recorded apart from the hash itself, so saturation is visible on its own
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.record(task);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            return CompletableFuture.failedFuture(new HashingCapacityExceededException(retryAfterSeconds));
+        }
+    }
+    
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,274 @@
+package com.assetmanagement.app.service;
+
+import com.assetmanagement.app.dto.StorageUsageSummary;
+import com.assetmanagement.app.exception.StorageQuotaExceededException;
+import com.assetmanagement.app.model.StorageUsage;
+import com.assetmanagement.app.model.User;
+import com.assetmanagement.app.repository.StorageUsageRepository;
+import com.assetmanagement.app.repository.UserRepository;
+import com.assetmanagement.common.config.IoThreadFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Tracks bytes and file counts per user and subdirectory so size lookups never walk the disk
+@Service
+public class StorageLedgerService {
+    
+    public static final String ROOT = "root";
+    
+    private static final Logger log = LoggerFactory.getLogger(StorageLedgerService.class);
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private StorageUsageRepository storageUsageRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.user.storage.quota-bytes:0}")
+    private long quotaBytes;
+    
+    private final Map<Long, UserLedger> ledgers = new ConcurrentHashMap<>();
+    
+    private final ExecutorService rescanExecutor;
+    
+    public StorageLedgerService(IoThreadFactory ioThreadFactory) {
+        this.rescanExecutor = Executors.newSingleThreadExecutor(ioThreadFactory.named("storage-rescan"));
+    }
+    
+    public void recordWrite(User user, String subdirectory, long bytes) {
+        record(user, subdirectory, bytes, 1);
+    }
+    
+    public void recordDelete(User user, String subdirectory, long bytes) {
+        record(user, subdirectory, -bytes, -1);
+    }
+    
+    public void record(User user, String subdirectory, long bytesDelta, long filesDelta) {
+        UserLedger ledger = ledgerFor(user);
+        ledger.usage(subdirectory).add(bytesDelta, filesDelta);
+        ledger.dirty.set(true);
+    }
+    
+    public long getTotalBytes(User user) {
+        return ledgerFor(user).totalBytes();
+    }
+    
+    public StorageUsageSummary getUsage(User user) {
+        UserLedger ledger = ledgerFor(user);
+        Map<String, StorageUsageSummary.SubdirectoryUsage> subdirectories = new TreeMap<>();
+        long totalBytes = 0;
+        long totalFiles = 0;
+        for (Map.Entry<String, Usage> entry : ledger.usage.entrySet()) {
+            long bytes = entry.getValue().bytes.get();
+            long files = entry.getValue().files.get();
+            subdirectories.put(entry.getKey(), new StorageUsageSummary.SubdirectoryUsage(bytes, files));
+            totalBytes += bytes;
+            totalFiles += files;
+        }
+        return new StorageUsageSummary(totalBytes, totalFiles, subdirectories);
+    }
+    
+    public void checkQuota(User user, long additionalBytes) {
+        if (quotaBytes > 0 && getTotalBytes(user) + additionalBytes > quotaBytes) {
+            throw new StorageQuotaExceededException(user.getUsername(), quotaBytes);
+        }
+    }
+    
+    public void forget(User user) {
+        ledgers.remove(user.getId());
+    }
+    
+    public void scheduleRescan(User user) {
+        Long userId = user.getId();
+        String userDirectory = user.getUserDirectory();
+        rescanExecutor.execute(() -> rescan(userId, userDirectory));
+    }
+    
+    // Background reconcile against the filesystem in case files changed behind the app's back
+    @Scheduled(fixedDelayString = "${app.user.storage.rescan-interval-ms:3600000}",
+               initialDelayString = "${app.user.storage.rescan-interval-ms:3600000}")
+    public void rescanAll() {
+        for (User user : userRepository.findAll()) {
+            scheduleRescan(user);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.user.storage.flush-interval-ms:30000}")
+    public void flush() {
+        ledgers.forEach((userId, ledger) -> {
+            if (ledger.dirty.compareAndSet(true, false)) {
+                try {
+                    persist(userId, ledger);
+                } catch (RuntimeException e) {
+                    ledger.dirty.set(true);
+                    log.warn("Failed to persist storage ledger for user {}", userId, e);
+                }
+            }
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        rescanExecutor.shutdownNow();
+        flush();
+    }
+    
+    private UserLedger ledgerFor(User user) {
+        UserLedger ledger = ledgers.get(user.getId());
+        if (ledger != null) {
+            return ledger;
+        }
+    
+        // Loaded outside the map so a query waiting on a connection never holds one of its bin locks;
+        // when two threads race, the first ledger in wins and the other load is discarded
+        UserLedger loaded = new UserLedger();
+        List<StorageUsage> persisted = storageUsageRepository.findByUserId(user.getId());
+        for (StorageUsage row : persisted) {
+            loaded.usage(row.getSubdirectory()).set(row.getBytes(), row.getFileCount());
+        }
+        ledger = ledgers.putIfAbsent(user.getId(), loaded);
+        if (ledger != null) {
+            return ledger;
+        }
+        if (persisted.isEmpty() && user.getUserDirectory() != null) {
+            // Accounts created before the ledger existed get one background scan
+            scheduleRescan(user);
+        }
+        return loaded;
+    }
+    
+    private void persist(Long userId, UserLedger ledger) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!userRepository.existsById(userId)) {
+                return;
+            }
+            Map<String, StorageUsage> rows = new HashMap<>();
+            for (StorageUsage row : storageUsageRepository.findByUserId(userId)) {
+                rows.put(row.getSubdirectory(), row);
+            }
+            ledger.usage.forEach((subdirectory, usage) -> {
+                StorageUsage row = rows.get(subdirectory);
+                if (row == null) {
+                    row = new StorageUsage();
+                    row.setUser(userRepository.getReferenceById(userId));
+                    row.setSubdirectory(subdirectory);
+                }
+                row.setBytes(usage.bytes.get());
+                row.setFileCount(usage.files.get());
+                storageUsageRepository.save(row);
+            });
+        });
+    }
+    
+    private void rescan(Long userId, String userDirectory) {
+        if (userDirectory == null) {
+            return;
+        }
+        Path userPath = Paths.get(userDirectory);
+        if (!Files.isDirectory(userPath)) {
+            return;
+        }
+        
+        Map<String, long[]> scanned = new HashMap<>();
+        long started = System.nanoTime();
+        AtomicLong visited = new AtomicLong();
+        try {
+            Files.walkFileTree(userPath, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    visited.incrementAndGet();
+                    if (attrs.isRegularFile()) {
+                        long[] totals = scanned.computeIfAbsent(subdirectoryOf(userPath, file), key -> new long[2]);
+                        totals[0] += attrs.size();
+                        totals[1]++;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+                
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Storage rescan failed for {}", userPath, e);
+            return;
+        }
+        meterRegistry.timer("user.directory.walk", "purpose", "rescan").record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        meterRegistry.summary("user.directory.walk.files", "purpose", "rescan").record(visited.get());
+        
+        // Writes racing with the scan may be off until the next rescan, which is acceptable drift
+        UserLedger ledger = ledgers.computeIfAbsent(userId, id -> new UserLedger());
+        ledger.usage.values().forEach(usage -> usage.set(0, 0));
+        scanned.forEach((subdirectory, totals) -> ledger.usage(subdirectory).set(totals[0], totals[1]));
+        ledger.dirty.set(true);
+    }
+    
+    // Files directly inside the user directory are accounted under ROOT
+    public static String subdirectoryOf(Path userPath, Path file) {
+        Path relative = userPath.toAbsolutePath().normalize().relativize(file.toAbsolutePath().normalize());
+        return relative.getNameCount() > 1 ? relative.getName(0).toString() : ROOT;
+    }
+    
+    private static final class UserLedger {
+        private final Map<String, Usage> usage = new ConcurrentHashMap<>();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        
+        Usage usage(String subdirectory) {
+            return usage.computeIfAbsent(subdirectory, key -> new Usage());
+        }
+        
+        long totalBytes() {
+            long total = 0;
+            for (Usage entry : usage.values()) {
+                total += entry.bytes.get();
+            }
+            return total;
+        }
+    }
+    
+    private static final class Usage {
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong files = new AtomicLong();
+        
+        void add(long bytesDelta, long filesDelta) {
+            bytes.addAndGet(bytesDelta);
+            files.addAndGet(filesDelta);
+        }
+        
+        void set(long newBytes, long newFiles) {
+            bytes.set(newBytes);
+            files.set(newFiles);
+        }
+    }
+}
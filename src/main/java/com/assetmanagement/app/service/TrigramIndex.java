@@ -0,0 +1,484 @@
+package com.assetmanagement.app.service;
+
+import com.assetmanagement.app.dto.AssetSearchHit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Inverted trigram index over one user's asset names and descriptions. Documents get dense
+// ordinals so posting lists can be sorted int arrays instead of boxed collections.
+// Memory grows linearly with the user's asset count and is not capped. An asset holds its name
+// (at most 255 characters, the column width) twice, at most MAX_DESCRIPTION_CHARS of description,
+// and one posting entry per distinct trigram. That stays under 8 KB per asset; typical short
+// names and descriptions need a few hundred bytes.
+class TrigramIndex {
+    
+    static final int MAX_DESCRIPTION_CHARS = 512;
+    static final int MAX_QUERY_CHARS = 64;
+    private static final double MIN_EXACT_SCORE = 4;
+    private static final int[] EMPTY = new int[0];
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Counters handed from one query to the next; only touched slots are reset afterwards. A query that
+    // overlaps another allocates its own, so searches on virtual threads never pin per-thread copies.
+    private final AtomicReference<int[]> spareCounts = new AtomicReference<>(EMPTY);
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private long[] assetIds = new long[16];
+    private String[] names = new String[16];
+    private String[] normalizedNames = new String[16];
+    private String[] normalizedDescriptions = new String[16];
+    private int size;
+    
+    void put(long assetId, String name, String description) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(assetId);
+            if (size == assetIds.length) {
+                grow();
+            }
+            int ordinal = size++;
+            String normalizedName = normalize(name);
+            String normalizedDescription = normalize(truncate(description));
+            assetIds[ordinal] = assetId;
+            names[ordinal] = name;
+            normalizedNames[ordinal] = normalizedName;
+            normalizedDescriptions[ordinal] = normalizedDescription;
+            ordinals.put(assetId, ordinal);
+            // Ordinals only grow, so appending keeps every posting list sorted
+            for (long gram : documentTrigrams(normalizedName, normalizedDescription)) {
+                postings.computeIfAbsent(gram, g -> new PostingList()).add(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    void remove(long assetId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(assetId);
+            if (size > 64 && size > ordinals.size() * 2) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    List<AssetSearchHit> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.length() > MAX_QUERY_CHARS) {
+            normalized = normalized.substring(0, MAX_QUERY_CHARS);
+        }
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1);
+            if (normalized.length() < 3) {
+                searchShort(normalized, top, limit);
+            } else {
+                searchTrigrams(normalized, top, limit);
+            }
+            List<AssetSearchHit> hits = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                Scored scored = top.poll();
+                hits.add(new AssetSearchHit(assetIds[scored.ordinal], names[scored.ordinal], scored.score, scored.match));
+            }
+            Collections.reverse(hits);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // One or two characters carry too little signal for trigrams; only word prefixes match
+    private void searchShort(String query, PriorityQueue<Scored> top, int limit) {
+        int[] candidates = null;
+        if (query.length() == 2) {
+            PostingList list = postings.get(pack(' ', query.charAt(0), query.charAt(1)));
+            if (list == null) {
+                return;
+            }
+            candidates = Arrays.copyOf(list.docs, list.size);
+        }
+        int count = candidates == null ? size : candidates.length;
+        for (int i = 0; i < count; i++) {
+            int ordinal = candidates == null ? i : candidates[i];
+            if (normalizedNames[ordinal] == null
+                    || !(startsWord(normalizedNames[ordinal], query) || startsWord(normalizedDescriptions[ordinal], query))) {
+                continue;
+            }
+            offer(top, limit, exactScore(ordinal, query), ordinal);
+        }
+    }
+    
+    private void searchTrigrams(String query, PriorityQueue<Scored> top, int limit) {
+        long[] grams = distinctTrigrams(query, false);
+        int[] counts = spareCounts.getAndSet(null);
+        if (counts == null) {
+            counts = new int[size];
+        } else if (counts.length < size) {
+            counts = new int[Math.max(size, counts.length * 2)];
+        }
+        int[] touched = new int[16];
+        int touchedCount = 0;
+        for (long gram : grams) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                continue;
+            }
+            for (int i = 0; i < list.size; i++) {
+                int ordinal = list.docs[i];
+                if (counts[ordinal]++ == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = ordinal;
+                }
+            }
+        }
+    
+        try {
+            verifyCandidates(query, grams.length, counts, touched, touchedCount, top, limit);
+        } finally {
+            for (int i = 0; i < touchedCount; i++) {
+                counts[touched[i]] = 0;
+            }
+            spareCounts.set(counts);
+        }
+    }
+    
+    private void verifyCandidates(String query, int gramCount, int[] counts, int[] touched, int touchedCount,
+                                  PriorityQueue<Scored> top, int limit) {
+        // Only documents holding every query trigram can contain the query verbatim
+        for (int i = 0; i < touchedCount; i++) {
+            int ordinal = touched[i];
+            if (counts[ordinal] == gramCount) {
+                offer(top, limit, exactScore(ordinal, query), ordinal);
+            }
+        }
+        // Typo matches always rank below verbatim ones, so they are only needed to fill up the results
+        int maxEdits = maxEdits(query);
+        if (maxEdits == 0 || (top.size() == limit && top.peek().score >= MIN_EXACT_SCORE)) {
+            return;
+        }
+        // An edit can destroy up to three trigrams; demanding half of them keeps the candidate set small
+        int required = Math.max(Math.max(1, gramCount - 3 * maxEdits), (gramCount + 1) / 2);
+        FuzzyMatcher matcher = new FuzzyMatcher(query);
+        for (int i = 0; i < touchedCount; i++) {
+            int ordinal = touched[i];
+            if (counts[ordinal] >= required && exactScore(ordinal, query) == null) {
+                offer(top, limit, fuzzyScore(ordinal, matcher, maxEdits), ordinal);
+            }
+        }
+    }
+    
+    private void offer(PriorityQueue<Scored> top, int limit, Scored scored, int ordinal) {
+        if (scored == null) {
+            return;
+        }
+        scored.ordinal = ordinal;
+        scored.nameLength = normalizedNames[ordinal].length();
+        top.offer(scored);
+        if (top.size() > limit) {
+            top.poll();
+        }
+    }
+    
+    // Name matches outrank description matches; exact, then prefix, then substring
+    private Scored exactScore(int ordinal, String query) {
+        String name = normalizedNames[ordinal];
+        if (name.equals(query)) {
+            return new Scored(10, "exact");
+        }
+        int nameIndex = name.indexOf(query);
+        if (nameIndex == 0) {
+            return new Scored(8, "prefix");
+        }
+        if (nameIndex > 0) {
+            boolean wordStart = name.charAt(nameIndex - 1) == ' ';
+            return new Scored(wordStart ? 7 : 6, wordStart ? "prefix" : "substring");
+        }
+        String description = normalizedDescriptions[ordinal];
+        int descriptionIndex = description.indexOf(query);
+        if (descriptionIndex >= 0) {
+            boolean wordStart = descriptionIndex == 0 || description.charAt(descriptionIndex - 1) == ' ';
+            return new Scored(wordStart ? 5 : MIN_EXACT_SCORE, wordStart ? "prefix" : "substring");
+        }
+        return null;
+    }
+    
+    private Scored fuzzyScore(int ordinal, FuzzyMatcher matcher, int maxEdits) {
+        int nameDistance = matcher.distance(normalizedNames[ordinal]);
+        if (nameDistance <= maxEdits) {
+            return new Scored(3 - nameDistance * 0.5, "fuzzy");
+        }
+        int descriptionDistance = matcher.distance(normalizedDescriptions[ordinal]);
+        if (descriptionDistance <= maxEdits) {
+            return new Scored(2 - descriptionDistance * 0.5, "fuzzy");
+        }
+        return null;
+    }
+    
+    private static boolean startsWord(String text, String prefix) {
+        return text.startsWith(prefix) || text.contains(" " + prefix);
+    }
+    
+    static int maxEdits(String query) {
+        if (query.length() >= 8) {
+            return 2;
+        }
+        return query.length() >= 4 ? 1 : 0;
+    }
+    
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(Character.toLowerCase(c));
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return normalized.toString();
+    }
+    
+    private static String truncate(String description) {
+        return description != null && description.length() > MAX_DESCRIPTION_CHARS
+            ? description.substring(0, MAX_DESCRIPTION_CHARS)
+            : description;
+    }
+    
+    private static long[] documentTrigrams(String name, String description) {
+        long[] nameGrams = distinctTrigrams(name, true);
+        long[] descriptionGrams = distinctTrigrams(description, true);
+        long[] all = Arrays.copyOf(nameGrams, nameGrams.length + descriptionGrams.length);
+        System.arraycopy(descriptionGrams, 0, all, nameGrams.length, descriptionGrams.length);
+        return dedupe(all, all.length);
+    }
+    
+    // Padding adds boundary trigrams such as " ab" so word prefixes are indexed too
+    private static long[] distinctTrigrams(String text, boolean padded) {
+        String source = padded ? " " + text + " " : text;
+        if (text.isEmpty() || source.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[source.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = pack(source.charAt(i), source.charAt(i + 1), source.charAt(i + 2));
+        }
+        return dedupe(grams, grams.length);
+    }
+    
+    private static long[] dedupe(long[] values, int length) {
+        Arrays.sort(values, 0, length);
+        int unique = 0;
+        for (int i = 0; i < length; i++) {
+            if (unique == 0 || values[unique - 1] != values[i]) {
+                values[unique++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, unique);
+    }
+    
+    private static long pack(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+    
+    private void removeLocked(long assetId) {
+        Integer ordinal = ordinals.remove(assetId);
+        if (ordinal == null) {
+            return;
+        }
+        for (long gram : documentTrigrams(normalizedNames[ordinal], normalizedDescriptions[ordinal])) {
+            PostingList list = postings.get(gram);
+            if (list != null && list.remove(ordinal) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+        names[ordinal] = null;
+        normalizedNames[ordinal] = null;
+        normalizedDescriptions[ordinal] = null;
+    }
+    
+    // Renumbers live documents once deletes have left more holes than entries
+    private void compact() {
+        int live = 0;
+        int[] remap = new int[size];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            if (normalizedNames[ordinal] == null) {
+                remap[ordinal] = -1;
+                continue;
+            }
+            remap[ordinal] = live;
+            assetIds[live] = assetIds[ordinal];
+            names[live] = names[ordinal];
+            normalizedNames[live] = normalizedNames[ordinal];
+            normalizedDescriptions[live] = normalizedDescriptions[ordinal];
+            ordinals.put(assetIds[live], live);
+            live++;
+        }
+        Arrays.fill(names, live, size, null);
+        Arrays.fill(normalizedNames, live, size, null);
+        Arrays.fill(normalizedDescriptions, live, size, null);
+        size = live;
+        // Relative order is preserved, so remapped posting lists stay sorted
+        for (PostingList list : postings.values()) {
+            for (int i = 0; i < list.size; i++) {
+                list.docs[i] = remap[list.docs[i]];
+            }
+            list.trim();
+        }
+    }
+    
+    private void grow() {
+        int capacity = assetIds.length * 2;
+        assetIds = Arrays.copyOf(assetIds, capacity);
+        names = Arrays.copyOf(names, capacity);
+        normalizedNames = Arrays.copyOf(normalizedNames, capacity);
+        normalizedDescriptions = Arrays.copyOf(normalizedDescriptions, capacity);
+    }
+    
+    private static final class PostingList {
+        private int[] docs = EMPTY;
+        private int size;
+    
+        void add(int ordinal) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, Math.max(4, size + (size >> 1)));
+            }
+            docs[size++] = ordinal;
+        }
+    
+        boolean remove(int ordinal) {
+            int index = Arrays.binarySearch(docs, 0, size, ordinal);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+            size--;
+            return true;
+        }
+    
+        void trim() {
+            if (docs.length > size + 8) {
+                docs = Arrays.copyOf(docs, size);
+            }
+        }
+    }
+    
+    // Smallest edit distance between the query and any substring of a text, using Myers'
+    // bit-parallel algorithm so each text character costs a handful of word operations
+    private static final class FuzzyMatcher {
+        private final int length;
+        private final char[] chars;
+        private final long[] masks;
+    
+        FuzzyMatcher(String query) {
+            length = query.length();
+            char[] distinct = new char[length];
+            long[] bits = new long[length];
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                char c = query.charAt(i);
+                int slot = 0;
+                while (slot < count && distinct[slot] != c) {
+                    slot++;
+                }
+                if (slot == count) {
+                    distinct[count++] = c;
+                }
+                bits[slot] |= 1L << i;
+            }
+            chars = Arrays.copyOf(distinct, count);
+            masks = Arrays.copyOf(bits, count);
+        }
+    
+        int distance(String text) {
+            long high = 1L << (length - 1);
+            long positive = -1L;
+            long negative = 0;
+            int score = length;
+            int best = length;
+            for (int j = 0; j < text.length(); j++) {
+                long eq = mask(text.charAt(j));
+                long xv = eq | negative;
+                long xh = (((eq & positive) + positive) ^ positive) | eq;
+                long horizontalPositive = negative | ~(xh | positive);
+                long horizontalNegative = positive & xh;
+                if ((horizontalPositive & high) != 0) {
+                    score++;
+                } else if ((horizontalNegative & high) != 0) {
+                    score--;
+                }
+                // The first row stays zero so a match may start anywhere in the text
+                horizontalPositive <<= 1;
+                horizontalNegative <<= 1;
+                positive = horizontalNegative | ~(xv | horizontalPositive);
+                negative = horizontalPositive & xv;
+                best = Math.min(best, score);
+            }
+            return best;
+        }
+    
+        private long mask(char c) {
+            for (int i = 0; i < chars.length; i++) {
+                if (chars[i] == c) {
+                    return masks[i];
+                }
+            }
+            return 0;
+        }
+    }
+    
+    private static final class Scored implements Comparable<Scored> {
+        private final double score;
+        private final String match;
+        private int ordinal;
+        private int nameLength;
+    
+        Scored(double score, String match) {
+            this.score = score;
+            this.match = match;
+        }
+    
+        // Orders worst first so the priority queue can evict it; shorter names win ties
+        @Override
+        public int compareTo(Scored other) {
+            int byScore = Double.compare(score, other.score);
+            if (byScore != 0) {
+                return byScore;
+            }
+            int byLength = Integer.compare(other.nameLength, nameLength);
+            return byLength != 0 ? byLength : Integer.compare(ordinal, other.ordinal);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.assetmanagement.app.service;
+
+import com.assetmanagement.app.dto.UserCacheStats;
+import com.assetmanagement.app.model.User;
+import com.assetmanagement.app.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Read-through cache for user lookups. Users are cached by id; username and email map to the id
+// so one invalidation covers every way of finding a user.
+@Service
+public class UserCacheService {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Value("${app.user.cache.maximum-size:10000}")
+    private long maximumSize;
+    
+    @Value("${app.user.cache.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+    
+    private Cache<Long, User> usersById;
+    private Cache<String, Long> idsByUsername;
+    private Cache<String, Long> idsByEmail;
+    
+    // Bumped on every invalidation; a load that raced with one is returned but not cached
+    private final Object lock = new Object();
+    private long generation;
+    
+    @PostConstruct
+    public void initialize() {
+        usersById = newCache();
+        idsByUsername = newCache();
+        idsByEmail = newCache();
+    }
+    
+    public Optional<User> findById(Long id) {
+        User cached = usersById.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+        return load(() -> userRepository.findById(id));
+    }
+    
+    public Optional<User> findByUsername(String username) {
+        return findByKey(idsByUsername, username, User::getUsername, () -> userRepository.findByUsername(username));
+    }
+    
+    public Optional<User> findByEmail(String email) {
+        return findByKey(idsByEmail, email, User::getEmail, () -> userRepository.findByEmail(email));
+    }
+    
+    // Evicts now and again once the current transaction finishes, so a read that slipped in
+    // before the commit cannot leave the old row behind
+    public void invalidate(User user) {
+        evict(user);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(user);
+                }
+            });
+        }
+    }
+    
+    // Enough when username and email are unchanged: their entries resolve through the id
+    public void invalidateById(Long id) {
+        synchronized (lock) {
+            generation++;
+            usersById.invalidate(id);
+        }
+    }
+    
+    public Map<String, UserCacheStats> getStats() {
+        Map<String, UserCacheStats> stats = new LinkedHashMap<>();
+        stats.put("byId", toStats(usersById));
+        stats.put("byUsername", toStats(idsByUsername));
+        stats.put("byEmail", toStats(idsByEmail));
+        return stats;
+    }
+    
+    private Optional<User> findByKey(Cache<String, Long> index, String key,
+                                     Function<User, String> keyOf, Supplier<Optional<User>> loader) {
+        Long id = index.getIfPresent(key);
+        if (id != null) {
+            User cached = usersById.getIfPresent(id);
+            if (cached != null && key.equals(keyOf.apply(cached))) {
+                return Optional.of(copyOf(cached));
+            }
+        }
+        return load(loader);
+    }
+    
+    private Optional<User> load(Supplier<Optional<User>> loader) {
+        long stamp;
+        synchronized (lock) {
+            stamp = generation;
+        }
+        Optional<User> loaded = loader.get();
+        loaded.ifPresent(user -> {
+            synchronized (lock) {
+                if (generation == stamp) {
+                    User snapshot = copyOf(user);
+                    usersById.put(snapshot.getId(), snapshot);
+                    idsByUsername.put(snapshot.getUsername(), snapshot.getId());
+                    idsByEmail.put(snapshot.getEmail(), snapshot.getId());
+                }
+            }
+        });
+        return loaded;
+    }
+    
+    private void evict(User user) {
+        synchronized (lock) {
+            generation++;
+            if (user.getId() != null) {
+                usersById.invalidate(user.getId());
+            }
+            if (user.getUsername() != null) {
+                idsByUsername.invalidate(user.getUsername());
+            }
+            if (user.getEmail() != null) {
+                idsByEmail.invalidate(user.getEmail());
+            }
+        }
+    }
+    
+    private <K, V> Cache<K, V> newCache() {
+        return Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+    }
+    
+    private UserCacheStats toStats(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new UserCacheStats(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+            stats.hitRate(), stats.evictionCount());
+    }
+    
+    // Callers get their own copy, so changing a returned user never alters the cached one
+    private static User copyOf(User user) {
+        return new User(user.getId(), user.getUsername(), user.getEmail(), user.getPassword(),
+            user.getUserDirectory(), user.getCreatedAt(), user.getLastLogin(), user.getDeletedAt());
+    }
+}
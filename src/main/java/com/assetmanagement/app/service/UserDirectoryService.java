@@ -1,15 +1,28 @@
 package com.assetmanagement.app.service;
 
+import com.assetmanagement.app.exception.UserDirectoryDeletionException;
 import com.assetmanagement.app.model.User;
+import com.assetmanagement.app.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import java.io.File;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.regex.Pattern;
 
 @Service
 public class UserDirectoryService {
@@ -17,53 +30,97 @@ public class UserDirectoryService {
     @Value("${app.user.directories.base-path:user-data}")
     private String baseDirectory;
     
-    public String createUserDirectory(User user) throws IOException {
-        // Create base directory if it doesn't exist
-        Path basePath = Paths.get(baseDirectory);
-        if (!Files.exists(basePath)) {
-            Files.createDirectories(basePath);
+    private static final Logger log = LoggerFactory.getLogger(UserDirectoryService.class);
+    private static final Pattern ORPHAN_DIRECTORY = Pattern.compile("[a-z0-9_]+_\\d{13}");
+    
+    @Autowired
+    private StorageLedgerService storageLedgerService;
+    
+    @Autowired
+    private DirectoryReclaimService directoryReclaimService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private UserCacheService userCacheService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.user.directories.orphan-min-age-ms:3600000}")
+    private long orphanMinAgeMillis;
+    
+    public Path resolveUserDirectory(User user) {
+        if (user.getUserDirectory() != null) {
+            return Paths.get(user.getUserDirectory());
         }
-        
-        // Create user-specific directory
         String userDirName = sanitizeUsername(user.getUsername()) + "_" + user.getId();
-        Path userPath = basePath.resolve(userDirName);
-        
-        if (!Files.exists(userPath)) {
-            Files.createDirectories(userPath);
-            
-            // Create subdirectories for different asset types
-            createSubdirectories(userPath);
-            
-            // Create a README file for the user
-            createUserReadme(userPath, user);
+        return Paths.get(baseDirectory).resolve(userDirName);
+    }
+    
+    // Directories are provisioned on first use rather than at registration
+    public Path ensureUserDirectory(User user) throws IOException {
+        Path userPath = resolveUserDirectory(user);
+        if (!Files.isDirectory(userPath)) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                createUserDirectory(user, userPath);
+            } finally {
+                sample.stop(meterRegistry.timer("user.directory.operations", "operation", "create"));
+            }
         }
-        
-        return userPath.toString();
+        if (user.getUserDirectory() == null) {
+            user.setUserDirectory(userPath.toString());
+            userRepository.assignUserDirectory(user.getId(), userPath.toString());
+            userCacheService.invalidate(user);
+        }
+        return userPath;
     }
     
-    public String createUserDirectoryForNewUser(String username) throws IOException {
-        // Create base directory if it doesn't exist
-        Path basePath = Paths.get(baseDirectory);
-        if (!Files.exists(basePath)) {
-            Files.createDirectories(basePath);
+    private void createUserDirectory(User user, Path userPath) throws IOException {
+        Files.createDirectories(userPath.getParent());
+        try {
+            Files.createDirectory(userPath);
+        } catch (FileAlreadyExistsException e) {
+            // Another request provisioned it first
+            return;
         }
         
-        // Create user-specific directory with timestamp for new users
-        String timestamp = String.valueOf(System.currentTimeMillis());
-        String userDirName = sanitizeUsername(username) + "_" + timestamp;
-        Path userPath = basePath.resolve(userDirName);
+        // Create subdirectories for different asset types
+        createSubdirectories(userPath);
         
-        if (!Files.exists(userPath)) {
-            Files.createDirectories(userPath);
-            
-            // Create subdirectories for different asset types
-            createSubdirectories(userPath);
-            
-            // Create a README file for the user
-            createUserReadmeForNewUser(userPath, username, timestamp);
+        // Create a README file for the user
+        createUserReadme(userPath, user);
+    }
+    
+    // Registration used to create a timestamped directory before the user id was known and never
+    // removed it; those leftovers are moved to the trash and reclaimed like deleted users
+    @Scheduled(fixedDelayString = "${app.user.directories.orphan-sweep-interval-ms:3600000}",
+               initialDelayString = "${app.user.directories.orphan-sweep-initial-delay-ms:60000}")
+    public void sweepOrphanedDirectories() {
+        Path basePath = Paths.get(baseDirectory);
+        if (!Files.isDirectory(basePath)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - orphanMinAgeMillis;
+        int swept = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(basePath,
+                entry -> ORPHAN_DIRECTORY.matcher(entry.getFileName().toString()).matches())) {
+            for (Path entry : entries) {
+                if (Files.getLastModifiedTime(entry).toMillis() > cutoff
+                        || userRepository.existsByUserDirectory(entry.toString())) {
+                    continue;
+                }
+                directoryReclaimService.scheduleReclaim(directoryReclaimService.moveToTrash(entry));
+                swept++;
+            }
+        } catch (IOException e) {
+            log.warn("Orphaned directory sweep failed in {}", basePath, e);
+        }
+        if (swept > 0) {
+            log.info("Moved {} orphaned registration directories to the trash", swept);
         }
-        
-        return userPath.toString();
     }
     
     private void createSubdirectories(Path userPath) throws IOException {
@@ -113,38 +170,9 @@ public class UserDirectoryService {
         );
         
         Path readmePath = userPath.resolve("README.md");
-        Files.write(readmePath, readmeContent.getBytes());
-    }
-    
-    private void createUserReadmeForNewUser(Path userPath, String username, String timestamp) throws IOException {
-        String readmeContent = String.format("""
-            # User Directory for %s
-            
-            Created: %s
-            Timestamp: %s
-            
-            ## Directory Structure
-            - documents/     - Document files (PDF, DOC, etc.)
-            - images/        - Image files (JPG, PNG, etc.)
-            - videos/        - Video files (MP4, AVI, etc.)
-            - audio/         - Audio files (MP3, WAV, etc.)
-            - archives/      - Compressed files (ZIP, RAR, etc.)
-            - temp/          - Temporary files
-            
-            ## Usage
-            You can organize your assets by placing them in the appropriate subdirectories.
-            The application will automatically track and manage your assets based on their location.
-            
-            ## Security
-            This directory is private to your account. Only you can access your assets.
-            """, 
-            username,
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
-            timestamp
-        );
-        
-        Path readmePath = userPath.resolve("README.md");
-        Files.write(readmePath, readmeContent.getBytes());
+        byte[] readmeBytes = readmeContent.getBytes();
+        Files.write(readmePath, readmeBytes);
+        storageLedgerService.recordWrite(user, StorageLedgerService.ROOT, readmeBytes.length);
     }
     
     private String sanitizeUsername(String username) {
@@ -152,50 +180,54 @@ public class UserDirectoryService {
         return username.replaceAll("[^a-zA-Z0-9]", "_").toLowerCase();
     }
     
-    public boolean deleteUserDirectory(User user) {
+    // Where the directory went in the trash, or empty when the user had none
+    public Optional<Path> deleteUserDirectory(User user) {
+        if (user.getUserDirectory() == null) {
+            return Optional.empty();
+        }
+        Path userPath = Paths.get(user.getUserDirectory());
+        if (!Files.exists(userPath)) {
+            return Optional.empty();
+        }
+        
+        Path trashed;
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
-            Path userPath = Paths.get(user.getUserDirectory());
-            if (Files.exists(userPath)) {
-                deleteDirectoryRecursively(userPath);
-                return true;
-            }
-            return false;
+            trashed = directoryReclaimService.moveToTrash(userPath);
         } catch (IOException e) {
-            return false;
+            // Failing the surrounding delete keeps the user row, so the directory is never left unowned
+            throw new UserDirectoryDeletionException(user.getUsername(), e);
+        } finally {
+            sample.stop(meterRegistry.timer("user.directory.operations", "operation", "trash"));
         }
-    }
-    
-    private void deleteDirectoryRecursively(Path path) throws IOException {
-        if (Files.isDirectory(path)) {
-            Files.list(path).forEach(child -> {
-                try {
-                    deleteDirectoryRecursively(child);
-                } catch (IOException e) {
-                    // Log error but continue
+        
+        // Only reclaim space once the deletion is committed; put the directory back on rollback
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        directoryReclaimService.scheduleReclaim(trashed);
+                    } else {
+                        restoreFromTrash(trashed, userPath);
+                    }
                 }
             });
+        } else {
+            directoryReclaimService.scheduleReclaim(trashed);
         }
-        Files.delete(path);
+        return Optional.of(trashed);
     }
     
-    public long getUserDirectorySize(User user) {
+    private void restoreFromTrash(Path trashed, Path userPath) {
         try {
-            Path userPath = Paths.get(user.getUserDirectory());
-            if (Files.exists(userPath)) {
-                return Files.walk(userPath)
-                    .filter(Files::isRegularFile)
-                    .mapToLong(path -> {
-                        try {
-                            return Files.size(path);
-                        } catch (IOException e) {
-                            return 0L;
-                        }
-                    })
-                    .sum();
-            }
+            directoryReclaimService.restore(trashed, userPath);
         } catch (IOException e) {
-            // Log error
+            log.error("Could not restore {} from trash after rollback", userPath, e);
         }
-        return 0L;
+    }
+    
+    public long getUserDirectorySize(User user) {
+        return storageLedgerService.getTotalBytes(user);
     }
 }
@@ -1,11 +1,19 @@
 package com.assetmanagement.app.service;
 
+import com.assetmanagement.app.dto.StorageUsageSummary;
+import com.assetmanagement.app.exception.DuplicateUserException;
+import com.assetmanagement.app.journal.UserMutationJournal;
 import com.assetmanagement.app.model.User;
+import com.assetmanagement.app.repository.AssetRepository;
+import com.assetmanagement.app.repository.StorageUsageRepository;
 import com.assetmanagement.app.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -20,56 +28,88 @@ public class UserService {
     private UserDirectoryService userDirectoryService;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private StorageUsageRepository storageUsageRepository;
     
+    @Autowired
+    private AssetRepository assetRepository;
+    
+    @Autowired
+    private StorageLedgerService storageLedgerService;
+    
+    @Autowired
+    private AssetSearchService assetSearchService;
+    
+    @Autowired
+    private UserCacheService userCacheService;
+    
+    @Autowired
+    private LastLoginBuffer lastLoginBuffer;
+    
+    // Present when app.journal.enabled is set
+    @Autowired(required = false)
+    private UserMutationJournal userMutationJournal;
+    
+    // One insert and no filesystem work: the unique constraints reject duplicates, and the
+    // directory is only provisioned (and recorded on the user) when it is first needed
     @Transactional
-    public User registerUser(String username, String email, String password) throws Exception {
-        // Check if user already exists
-        if (userRepository.existsByUsername(username)) {
-            throw new RuntimeException("Username already exists");
-        }
-        
-        if (userRepository.existsByEmail(email)) {
-            throw new RuntimeException("Email already exists");
-        }
-        
-        // Create user directory first
-        String userDirectory = userDirectoryService.createUserDirectoryForNewUser(username);
-        
-        // Create user entity
+    public User registerUser(String username, String email, String passwordHash) {
         User user = new User();
         user.setUsername(username);
         user.setEmail(email);
-        user.setPassword(passwordEncoder.encode(password));
-        user.setUserDirectory(userDirectory);
+        user.setPassword(passwordHash);
         user.setCreatedAt(LocalDateTime.now());
         
-        // Save user to get ID
-        User savedUser = userRepository.save(user);
-        
-        // Update directory name with actual user ID
-        String finalDirectory = userDirectoryService.createUserDirectory(savedUser);
-        savedUser.setUserDirectory(finalDirectory);
-        
-        return userRepository.save(savedUser);
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateUserException(duplicateField(e));
+        }
+        userCacheService.invalidate(savedUser);
+        if (userMutationJournal != null) {
+            userMutationJournal.recordSaved(savedUser);
+        }
+        return savedUser;
+    }
+    
+    private String duplicateField(DataIntegrityViolationException e) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage()).toUpperCase();
+        return message.contains("UK_USERS_EMAIL") ? "Email" : "Username";
+    }
+    
+    public Optional<User> findById(Long id) {
+        return userCacheService.findById(id);
     }
     
     public Optional<User> findByUsername(String username) {
-        return userRepository.findByUsername(username);
+        return userCacheService.findByUsername(username);
     }
     
     public Optional<User> findByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return userCacheService.findByEmail(email);
     }
     
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
     
-    @Transactional
     public void updateLastLogin(User user) {
-        user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
+        user.setLastLogin(lastLoginBuffer.recordLogin(user));
+    }
+    
+    public LocalDateTime getLastLogin(User user) {
+        return lastLoginBuffer.lastLoginOf(user);
+    }
+    
+    @Transactional
+    public void updatePasswordHash(Long userId, String passwordHash) {
+        userRepository.findById(userId).ifPresent(user -> {
+            user.setPassword(passwordHash);
+            userCacheService.invalidate(user);
+            if (userMutationJournal != null) {
+                userMutationJournal.recordSaved(user);
+            }
+        });
     }
     
     @Transactional
@@ -77,16 +117,46 @@ public class UserService {
         Optional<User> userOpt = userRepository.findById(userId);
         if (userOpt.isPresent()) {
             User user = userOpt.get();
-            // Delete user directory
-            userDirectoryService.deleteUserDirectory(user);
-            // Delete user from database
-            userRepository.delete(user);
+            // Move the user directory to the trash; its contents are reclaimed after commit
+            Optional<Path> trashed = userDirectoryService.deleteUserDirectory(user);
+            // Delete assets and storage accounting from database
+            assetRepository.deleteAllByUser(user);
+            storageUsageRepository.deleteByUserId(userId);
+            storageLedgerService.forget(user);
+            // Dropped only once the delete commits, so a rolled back delete keeps the user searchable
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    assetSearchService.removeUser(user);
+                }
+            });
+            userCacheService.invalidate(user);
+            lastLoginBuffer.forget(user);
+            if (trashed.isPresent()) {
+                // The reclaim job deletes the tombstone with the directory; until then the
+                // username and email stay taken
+                user.setUserDirectory(trashed.get().toString());
+                user.setDeletedAt(LocalDateTime.now());
+            } else {
+                userRepository.delete(user);
+            }
+            if (userMutationJournal != null) {
+                userMutationJournal.recordDeleted(user);
+            }
             return true;
         }
         return false;
     }
     
+    public String getUserDirectory(User user) {
+        return userDirectoryService.resolveUserDirectory(user).toString();
+    }
+    
     public long getUserDirectorySize(User user) {
         return userDirectoryService.getUserDirectorySize(user);
     }
+    
+    public StorageUsageSummary getStorageUsage(User user) {
+        return storageLedgerService.getUsage(user);
+    }
 }
@@ -0,0 +1,36 @@
+package com.assetmanagement.common.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Bounds concurrent connection checkouts so virtual request threads cannot stampede the pool;
+// imported by both applications. Platform request threads are already bounded by Tomcat's pool, so
+// without virtual threads the DataSource is left as it is.
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "app.datasource.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceAdmissionConfig {
+
+    // Static so wrapping the DataSource does not force early initialisation of this configuration
+    @Bean
+    public static BeanPostProcessor dataSourceAdmissionPostProcessor(
+            @Value("${app.datasource.admission.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${app.datasource.admission.timeout-ms:5000}") long timeoutMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof AdmissionControlledDataSource)) {
+                    return new AdmissionControlledDataSource(dataSource, maxConcurrent, timeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.assetmanagement.common.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Threads for blocking filesystem work: virtual when spring.threads.virtual.enabled is set,
+// otherwise daemon platform threads
+@Component
+public class IoThreadFactory {
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    public ThreadFactory named(String name) {
+        if (virtualThreads) {
+            return Thread.ofVirtual().name(name + "-", 1).factory();
+        }
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
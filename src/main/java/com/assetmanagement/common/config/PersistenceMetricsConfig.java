@@ -0,0 +1,63 @@
+package com.assetmanagement.common.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Persistence-layer meters that Spring Boot does not provide: persistence-context sizes, entity loads per type,
+// and the JDBC admission limit. Repository method latency comes from spring.data.repository.invocations.
+@Configuration
+public class PersistenceMetricsConfig {
+
+    @Bean
+    public SmartInitializingSingleton hibernateEventMetrics(EntityManagerFactory entityManagerFactory,
+                                                            MeterRegistry meterRegistry) {
+        return () -> {
+            EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry().requireService(EventListenerRegistry.class);
+
+            DistributionSummary managedEntities = DistributionSummary.builder("hibernate.persistence.context.entities")
+                    .description("Entities managed by the persistence context when it is flushed")
+                    .register(meterRegistry);
+            listeners.appendListeners(EventType.FLUSH, (FlushEventListener) event ->
+                    managedEntities.record(event.getSession().getPersistenceContextInternal().getNumberOfManagedEntities()));
+
+            // Counters are cached per entity so a load costs one map lookup rather than a registry lookup
+            Map<String, Counter> loads = new ConcurrentHashMap<>();
+            listeners.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event ->
+                    loads.computeIfAbsent(event.getPersister().getEntityName(), entity ->
+                            meterRegistry.counter("hibernate.entities.loaded", "entity", entity)).increment());
+        };
+    }
+
+    @Bean
+    public SmartInitializingSingleton dataSourceAdmissionMetrics(ObjectProvider<DataSource> dataSource,
+                                                                 MeterRegistry meterRegistry) {
+        return () -> {
+            if (!(dataSource.getIfAvailable() instanceof AdmissionControlledDataSource admission)) {
+                return;
+            }
+            Gauge.builder("jdbc.admission.active", admission, AdmissionControlledDataSource::getActiveCount)
+                    .description("Threads currently holding a JDBC connection")
+                    .register(meterRegistry);
+            Gauge.builder("jdbc.admission.waiting", admission, AdmissionControlledDataSource::getQueueLength)
+                    .description("Threads waiting for a JDBC connection slot")
+                    .register(meterRegistry);
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package com.assetmanagement.common.journal;
+
+import java.nio.file.Path;
+
+// A sealed segment failed its checksum; only the tail of the active segment may be torn by a crash
+public class JournalCorruptionException extends RuntimeException {
+
+    public JournalCorruptionException(Path segment, int offset) {
+        super("Corrupt journal record in " + segment.getFileName() + " at offset " + offset);
+    }
+}
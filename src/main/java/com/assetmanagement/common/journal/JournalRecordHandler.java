@@ -0,0 +1,10 @@
+package com.assetmanagement.common.journal;
+
+import java.nio.ByteBuffer;
+
+// The payload is a read-only view into the segment mapping, valid only during the call
+@FunctionalInterface
+public interface JournalRecordHandler {
+
+    void accept(long sequence, long key, byte type, ByteBuffer payload);
+}
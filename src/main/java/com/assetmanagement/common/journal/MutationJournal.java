@@ -0,0 +1,547 @@
+package com.assetmanagement.common.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Append-only journal of keyed mutation records in fixed-size, memory-mapped segment files.
+// An append is a copy into the mapping under a lock; a flusher thread then forces the written range
+// to disk, so writers waiting for durability at the same time share one force (group commit).
+//
+// Record layout: int body length, int CRC32C of the body, then the body: long sequence, long key,
+// byte type, payload. A zero length marks the end of the written part of a segment.
+public class MutationJournal implements Closeable {
+
+    // Records of this type mark a deleted key; compaction drops them with everything they supersede
+    public static final byte TOMBSTONE = 0;
+
+    private static final Logger log = LoggerFactory.getLogger(MutationJournal.class);
+
+    private static final int HEADER_BYTES = 8;
+    private static final int BODY_PREFIX_BYTES = 17;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String COMPACTING_SUFFIX = ".compacting";
+    private static final String COMPACTION_COMMIT = "compaction.commit";
+
+    private final Path directory;
+    private final int segmentBytes;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Condition appended = appendLock.newCondition();
+    private final Condition forced = appendLock.newCondition();
+    private final CRC32C appendChecksum = new CRC32C();
+    private Segment active;
+    private MappedByteBuffer activeMap;
+    private int activePosition;
+    private int activeForcedPosition;
+    private long lastSequence;
+    private long durableSequence;
+    private boolean closed;
+
+    // Rolls append to the sealed list and compaction replaces a prefix of it; replays hold the read
+    // lock so compaction cannot delete files they are still reading
+    private final Object sealedLock = new Object();
+    private volatile List<Segment> sealed;
+    private final ReadWriteLock filesLock = new ReentrantReadWriteLock();
+    private final Object compactionLock = new Object();
+
+    private final Thread flusher;
+
+    private MutationJournal(Path directory, int segmentBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        finishInterruptedCompaction();
+
+        List<Segment> segments = listSegments();
+        if (segments.isEmpty()) {
+            segments.add(new Segment(directory.resolve(segmentName(1)), 1));
+        }
+        this.active = segments.remove(segments.size() - 1);
+        this.sealed = List.copyOf(segments);
+        recoverActive();
+        // The active segment may have just been created; its entry must survive before appends to it are durable
+        forceDirectory();
+
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public static MutationJournal open(Path directory, int segmentBytes) throws IOException {
+        return new MutationJournal(directory, segmentBytes);
+    }
+
+    // Returns the record's sequence once it is in the mapping; see awaitDurable for persistence
+    public long append(long key, byte type, byte[] payload) {
+        int recordBytes = HEADER_BYTES + BODY_PREFIX_BYTES + payload.length;
+        if (recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("Record of " + recordBytes + " bytes exceeds the segment size");
+        }
+        appendLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            if (activePosition + recordBytes > segmentBytes) {
+                roll();
+            }
+            long sequence = ++lastSequence;
+            activePosition = writeRecord(activeMap, activePosition, sequence, key, type,
+                    ByteBuffer.wrap(payload), appendChecksum);
+            appended.signal();
+            return sequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public void awaitDurable(long sequence) {
+        appendLock.lock();
+        try {
+            while (durableSequence < sequence && !closed) {
+                forced.awaitUninterruptibly();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long lastSequence() {
+        appendLock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Delivers every record after the given sequence in order and returns the last sequence seen
+    public long replay(long afterSequence, JournalRecordHandler handler) {
+        filesLock.readLock().lock();
+        try {
+            List<Segment> segments;
+            ByteBuffer activeView;
+            int activeLimit;
+            appendLock.lock();
+            try {
+                segments = sealed;
+                activeView = activeMap.duplicate();
+                activeLimit = activePosition;
+            } finally {
+                appendLock.unlock();
+            }
+
+            long[] last = {afterSequence};
+            JournalRecordHandler filter = (sequence, key, type, payload) -> {
+                if (sequence > last[0]) {
+                    last[0] = sequence;
+                    handler.accept(sequence, key, type, payload);
+                }
+            };
+            for (int i = 0; i < segments.size(); i++) {
+                // A segment ends where the next begins, so segments entirely before the cursor are skipped
+                if (i + 1 < segments.size() && segments.get(i + 1).firstSequence() <= afterSequence + 1) {
+                    continue;
+                }
+                Segment segment = segments.get(i);
+                ByteBuffer map = mapReadOnly(segment.path());
+                int end = scan(map, map.capacity(), filter);
+                if (end != map.capacity()) {
+                    throw new JournalCorruptionException(segment.path(), end);
+                }
+            }
+            scan(activeView, activeLimit, filter);
+            return last[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            filesLock.readLock().unlock();
+        }
+    }
+
+    // Rewrites the sealed segments keeping only the latest record per key, and dropping keys whose
+    // latest record is a tombstone. The active segment is left alone. Returns the records removed.
+    public long compact() throws IOException {
+        synchronized (compactionLock) {
+            List<Segment> inputs = sealed;
+            if (inputs.isEmpty()) {
+                return 0;
+            }
+            Map<Long, Long> latest = new HashMap<>();
+            replay(0, (sequence, key, type, payload) -> latest.put(key, sequence));
+
+            List<Path> outputs = new ArrayList<>();
+            long[] dropped = {0};
+            CompactionWriter writer = new CompactionWriter(outputs);
+            filesLock.readLock().lock();
+            try {
+                for (Segment segment : inputs) {
+                    ByteBuffer map = mapReadOnly(segment.path());
+                    scan(map, map.capacity(), (sequence, key, type, payload) -> {
+                        if (type != TOMBSTONE && latest.get(key) == sequence) {
+                            writer.write(sequence, key, type, payload);
+                        } else {
+                            dropped[0]++;
+                        }
+                    });
+                }
+                writer.finish();
+            } catch (RuntimeException | IOException e) {
+                for (Path output : outputs) {
+                    Files.deleteIfExists(output);
+                }
+                throw e;
+            } finally {
+                filesLock.readLock().unlock();
+            }
+            if (dropped[0] == 0) {
+                for (Path output : outputs) {
+                    Files.deleteIfExists(output);
+                }
+                return 0;
+            }
+
+            // The commit file makes the swap redoable: once it exists, a restart finishes the swap
+            List<String> commit = new ArrayList<>();
+            inputs.forEach(segment -> commit.add("delete " + segment.path().getFileName()));
+            List<Segment> compacted = new ArrayList<>();
+            for (Path output : outputs) {
+                String name = output.getFileName().toString();
+                String target = name.substring(0, name.length() - COMPACTING_SUFFIX.length());
+                commit.add("rename " + name + " " + target);
+                compacted.add(new Segment(directory.resolve(target), parseFirstSequence(target)));
+            }
+            Path pending = directory.resolve(COMPACTION_COMMIT + COMPACTING_SUFFIX);
+            Files.write(pending, commit, StandardCharsets.UTF_8);
+            try (FileChannel channel = FileChannel.open(pending, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(pending, directory.resolve(COMPACTION_COMMIT), StandardCopyOption.ATOMIC_MOVE);
+            forceDirectory();
+
+            filesLock.writeLock().lock();
+            try {
+                applyCompactionCommit();
+                synchronized (sealedLock) {
+                    List<Segment> remaining = new ArrayList<>(compacted);
+                    remaining.addAll(sealed.subList(inputs.size(), sealed.size()));
+                    sealed = List.copyOf(remaining);
+                }
+            } finally {
+                filesLock.writeLock().unlock();
+            }
+            log.info("Compacted {} journal segments into {}, dropping {} superseded records",
+                    inputs.size(), compacted.size(), dropped[0]);
+            return dropped[0];
+        }
+    }
+
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            appended.signalAll();
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        appendLock.lock();
+        try {
+            activeMap.force();
+            durableSequence = lastSequence;
+            forced.signalAll();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            MappedByteBuffer map;
+            int from;
+            int to;
+            long target;
+            appendLock.lock();
+            try {
+                while (durableSequence == lastSequence && !closed) {
+                    appended.awaitUninterruptibly();
+                }
+                if (closed) {
+                    return;
+                }
+                map = activeMap;
+                from = activeForcedPosition;
+                to = activePosition;
+                target = lastSequence;
+            } finally {
+                appendLock.unlock();
+            }
+
+            // Appends carry on into the mapping while the range is being forced
+            if (to > from) {
+                map.force(from, to - from);
+            }
+
+            appendLock.lock();
+            try {
+                if (map == activeMap) {
+                    activeForcedPosition = Math.max(activeForcedPosition, to);
+                }
+                durableSequence = Math.max(durableSequence, target);
+                forced.signalAll();
+            } finally {
+                appendLock.unlock();
+            }
+        }
+    }
+
+    // Caller holds the append lock. The full segment is forced and trimmed before the next one starts,
+    // so everything before the active segment is already durable.
+    private void roll() {
+        try {
+            activeMap.force();
+            try (FileChannel channel = FileChannel.open(active.path(), StandardOpenOption.WRITE)) {
+                channel.truncate(activePosition);
+            }
+            Segment next = new Segment(directory.resolve(segmentName(lastSequence + 1)), lastSequence + 1);
+            MappedByteBuffer nextMap = mapReadWrite(next.path());
+            // Forcing the mapping alone would leave the new file's directory entry to chance
+            forceDirectory();
+            synchronized (sealedLock) {
+                List<Segment> segments = new ArrayList<>(sealed);
+                segments.add(active);
+                sealed = List.copyOf(segments);
+            }
+            active = next;
+            activeMap = nextMap;
+            activePosition = 0;
+            activeForcedPosition = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void recoverActive() throws IOException {
+        activeMap = mapReadWrite(active.path());
+        long[] last = {active.firstSequence() - 1};
+        activePosition = scan(activeMap, activeMap.capacity(), (sequence, key, type, payload) -> last[0] = sequence);
+        if (activePosition + Integer.BYTES <= activeMap.capacity() && activeMap.getInt(activePosition) != 0) {
+            // A record torn by a crash; it was never reported durable, so it is discarded
+            log.warn("Discarding torn journal tail in {} at offset {}", active.path().getFileName(), activePosition);
+            for (int i = activePosition; i < activeMap.capacity(); i++) {
+                activeMap.put(i, (byte) 0);
+            }
+            activeMap.force();
+        }
+        activeForcedPosition = activePosition;
+        lastSequence = last[0];
+        durableSequence = lastSequence;
+    }
+
+    private void finishInterruptedCompaction() throws IOException {
+        if (Files.exists(directory.resolve(COMPACTION_COMMIT))) {
+            log.info("Completing interrupted journal compaction in {}", directory);
+            applyCompactionCommit();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(COMPACTING_SUFFIX)).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // Idempotent, so it can be repeated after a crash part way through. An output can take the name of
+    // an input; that input is replaced by the rename rather than deleted, since on a repeat the file
+    // under that name may already be the output.
+    private void applyCompactionCommit() throws IOException {
+        Path commit = directory.resolve(COMPACTION_COMMIT);
+        List<String> lines = Files.readAllLines(commit, StandardCharsets.UTF_8);
+        Set<String> targets = new HashSet<>();
+        for (String line : lines) {
+            String[] parts = line.split(" ");
+            if (parts[0].equals("rename")) {
+                targets.add(parts[2]);
+            }
+        }
+        for (String line : lines) {
+            String[] parts = line.split(" ");
+            if (parts[0].equals("delete") && !targets.contains(parts[1])) {
+                Files.deleteIfExists(directory.resolve(parts[1]));
+            }
+        }
+        for (String line : lines) {
+            String[] parts = line.split(" ");
+            if (parts[0].equals("rename") && Files.exists(directory.resolve(parts[1]))) {
+                Files.move(directory.resolve(parts[1]), directory.resolve(parts[2]),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        // The swap is durable before the commit file that would redo it goes away
+        forceDirectory();
+        Files.delete(commit);
+        forceDirectory();
+    }
+
+    // Makes renames and deletes in the journal directory durable. Not every platform can open a
+    // directory for this (Windows cannot), and there the file system gives no stronger option.
+    private void forceDirectory() throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            log.debug("Cannot open {} to force it", directory, e);
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    private List<Segment> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .map(name -> new Segment(directory.resolve(name), parseFirstSequence(name)))
+                    .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        }
+    }
+
+    private MappedByteBuffer mapReadWrite(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentBytes, channel.size()));
+        }
+    }
+
+    private static MappedByteBuffer mapReadOnly(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static int writeRecord(ByteBuffer map, int offset, long sequence, long key, byte type,
+                                   ByteBuffer payload, CRC32C checksum) {
+        int length = BODY_PREFIX_BYTES + payload.remaining();
+        int body = offset + HEADER_BYTES;
+        map.putLong(body, sequence);
+        map.putLong(body + 8, key);
+        map.put(body + 16, type);
+        map.put(body + BODY_PREFIX_BYTES, payload, payload.position(), payload.remaining());
+        checksum.reset();
+        checksum.update(map.slice(body, length));
+        map.putInt(offset + 4, (int) checksum.getValue());
+        // Length last: a record is not visible to recovery until its header is complete
+        map.putInt(offset, length);
+        return body + length;
+    }
+
+    // Visits valid records from the start of the buffer up to the limit and returns the offset after
+    // the last one; stops early at a zero length or a record that fails its checksum
+    private static int scan(ByteBuffer map, int limit, JournalRecordHandler handler) {
+        CRC32C checksum = new CRC32C();
+        int offset = 0;
+        while (offset + HEADER_BYTES <= limit) {
+            int length = map.getInt(offset);
+            int body = offset + HEADER_BYTES;
+            if (length < BODY_PREFIX_BYTES || body + length > limit) {
+                break;
+            }
+            checksum.reset();
+            checksum.update(map.slice(body, length));
+            if ((int) checksum.getValue() != map.getInt(offset + 4)) {
+                break;
+            }
+            handler.accept(map.getLong(body), map.getLong(body + 8), map.get(body + 16),
+                    map.slice(body + BODY_PREFIX_BYTES, length - BODY_PREFIX_BYTES).asReadOnlyBuffer());
+            offset = body + length;
+        }
+        return offset;
+    }
+
+    private static String segmentName(long firstSequence) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX);
+    }
+
+    private static long parseFirstSequence(String name) {
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private record Segment(Path path, long firstSequence) {
+    }
+
+    // Writes surviving records into new segments named after their first record, trimmed to size
+    private final class CompactionWriter {
+
+        private final List<Path> outputs;
+        private final CRC32C checksum = new CRC32C();
+        private Path path;
+        private MappedByteBuffer map;
+        private int position;
+
+        private CompactionWriter(List<Path> outputs) {
+            this.outputs = outputs;
+        }
+
+        void write(long sequence, long key, byte type, ByteBuffer payload) {
+            try {
+                int recordBytes = HEADER_BYTES + BODY_PREFIX_BYTES + payload.remaining();
+                if (map == null || position + recordBytes > map.capacity()) {
+                    finish();
+                    path = directory.resolve(segmentName(sequence) + COMPACTING_SUFFIX);
+                    outputs.add(path);
+                    map = mapReadWrite(path);
+                    position = 0;
+                }
+                position = writeRecord(map, position, sequence, key, type, payload, checksum);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            if (map == null) {
+                return;
+            }
+            map.force();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(position);
+                channel.force(true);
+            }
+            map = null;
+        }
+    }
+}
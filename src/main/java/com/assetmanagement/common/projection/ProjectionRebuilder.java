@@ -0,0 +1,64 @@
+package com.assetmanagement.common.projection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Rebuilds an in-memory projection from a slow full load while mutations keep arriving. Mutations
+// applied during the load are kept and replayed onto the fresh copy before it replaces the live one,
+// so none is lost. Replaying must be idempotent, since the load may already have seen a mutation.
+// The lock is the owner's, so whatever else it guards changes atomically with the swap.
+public final class ProjectionRebuilder<M> {
+
+    private final Object lock;
+    private final Set<List<M>> inProgress = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public ProjectionRebuilder() {
+        this(new Object());
+    }
+
+    public ProjectionRebuilder(Object lock) {
+        this.lock = lock;
+    }
+
+    // Applies a mutation to the live projection and keeps it for every rebuild in progress
+    public void apply(M mutation, Consumer<M> live) {
+        synchronized (lock) {
+            live.accept(mutation);
+            for (List<M> pending : inProgress) {
+                pending.add(mutation);
+            }
+        }
+    }
+
+    // Loads a fresh copy outside the lock, then replays the mutations that arrived meanwhile and
+    // installs it under the lock. A failed load leaves the live projection as it was and rethrows.
+    public <P> P rebuild(Supplier<P> load, BiConsumer<P, M> replay, Consumer<P> install) {
+        List<M> pending = new ArrayList<>();
+        synchronized (lock) {
+            inProgress.add(pending);
+        }
+
+        P rebuilt;
+        try {
+            rebuilt = load.get();
+        } catch (RuntimeException | Error e) {
+            synchronized (lock) {
+                inProgress.remove(pending);
+            }
+            throw e;
+        }
+
+        synchronized (lock) {
+            inProgress.remove(pending);
+            pending.forEach(mutation -> replay.accept(rebuilt, mutation));
+            install.accept(rebuilt);
+        }
+        return rebuilt;
+    }
+}
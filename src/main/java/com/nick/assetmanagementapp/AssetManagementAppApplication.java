@@ -1,10 +1,19 @@
 package com.nick.assetmanagementapp;
 
+import com.assetmanagement.common.config.BinaryEncodingConfig;
+import com.assetmanagement.common.config.DataSourceAdmissionConfig;
+import com.assetmanagement.common.config.IoThreadFactory;
+import com.assetmanagement.common.config.PersistenceMetricsConfig;
 import lombok.AllArgsConstructor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@Import({BinaryEncodingConfig.class, DataSourceAdmissionConfig.class, IoThreadFactory.class,
+        PersistenceMetricsConfig.class})
+@EnableScheduling
 @AllArgsConstructor
 public class AssetManagementAppApplication {
 
@@ -1,13 +1,49 @@
 package com.nick.assetmanagementapp.controller;
 
+import com.nick.assetmanagementapp.dto.AssetBatchRequest;
+import com.nick.assetmanagementapp.dto.AssetBatchResponse;
+import com.nick.assetmanagementapp.dto.AssetChangeSet;
+import com.nick.assetmanagementapp.dto.AssetFilter;
+import com.nick.assetmanagementapp.dto.AssetImportReport;
+import com.nick.assetmanagementapp.dto.AssetPage;
+import com.nick.assetmanagementapp.dto.AssetPatch;
+import com.nick.assetmanagementapp.dto.PortfolioSummary;
+import com.nick.assetmanagementapp.dto.PortfolioValuation;
+import com.nick.assetmanagementapp.exception.AssetBatchRejectedException;
+import com.nick.assetmanagementapp.exception.AssetVersionMismatchException;
 import com.nick.assetmanagementapp.model.Asset;
+import com.nick.assetmanagementapp.service.AssetBatchService;
+import com.nick.assetmanagementapp.service.AssetChangeFeedService;
+import com.nick.assetmanagementapp.service.AssetDataFormat;
+import com.nick.assetmanagementapp.service.AssetExportService;
+import com.nick.assetmanagementapp.service.AssetField;
+import com.nick.assetmanagementapp.service.AssetImportService;
 import com.nick.assetmanagementapp.service.AssetService;
+import com.nick.assetmanagementapp.service.AssetSort;
+import com.nick.assetmanagementapp.service.PortfolioAggregationService;
+import com.nick.assetmanagementapp.service.PortfolioValuationService;
+import com.nick.assetmanagementapp.service.ValuationInterval;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @CrossOrigin
 @RestController
@@ -15,53 +51,241 @@ import java.util.Optional;
 public class AssetController {
 
     private final AssetService assetService;
+    private final AssetExportService assetExportService;
+    private final AssetImportService assetImportService;
+    private final PortfolioAggregationService portfolioAggregationService;
+    private final AssetBatchService assetBatchService;
+    private final AssetChangeFeedService assetChangeFeedService;
+    private final PortfolioValuationService portfolioValuationService;
 
-    public AssetController(AssetService assetService) {
+    public AssetController(AssetService assetService, AssetExportService assetExportService,
+                           AssetImportService assetImportService,
+                           PortfolioAggregationService portfolioAggregationService,
+                           AssetBatchService assetBatchService, AssetChangeFeedService assetChangeFeedService,
+                           PortfolioValuationService portfolioValuationService) {
         this.assetService = assetService;
+        this.assetExportService = assetExportService;
+        this.assetImportService = assetImportService;
+        this.portfolioAggregationService = portfolioAggregationService;
+        this.assetBatchService = assetBatchService;
+        this.assetChangeFeedService = assetChangeFeedService;
+        this.portfolioValuationService = portfolioValuationService;
     }
 
 
     @GetMapping
-    public List<Asset> getAllAssets() {
-        return assetService.getAllAssets();
+    public ResponseEntity<?> getAssets(@RequestParam(required = false) String type,
+                                       @RequestParam(required = false) Boolean stillOwned,
+                                       @RequestParam(required = false) Double minPrice,
+                                       @RequestParam(required = false) Double maxPrice,
+                                       @RequestParam(required = false) String sort,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(required = false) Integer limit,
+                                       @RequestParam(required = false) String fields) {
+        try {
+            AssetFilter filter = new AssetFilter(type, stillOwned, minPrice, maxPrice);
+            if (fields != null) {
+                return ResponseEntity.ok(assetService.getPartialAssetPage(filter, AssetSort.fromParameter(sort), cursor,
+                        limit, AssetField.parse(fields)));
+            }
+            AssetPage page = assetService.getAssetPage(filter, AssetSort.fromParameter(sort), cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAssets(@RequestParam(defaultValue = "ndjson") String format,
+                                                              @RequestParam(defaultValue = "false") boolean gzip) {
+        AssetDataFormat exportFormat;
+        try {
+            exportFormat = AssetDataFormat.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+                assetExportService.exportAssets(exportFormat, gzipOut);
+                gzipOut.finish();
+            } else {
+                assetExportService.exportAssets(exportFormat, out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("assets." + exportFormat.getExtension()).build().toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @GetMapping("/summary")
+    public PortfolioSummary getPortfolioSummary() {
+        return portfolioAggregationService.getSummary();
+    }
+
+    // /valuation?to=2024-06-30 values the portfolio on one date; add from and interval for a curve
+    @GetMapping("/valuation")
+    public ResponseEntity<?> getValuation(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                          @RequestParam(required = false) String interval,
+                                          @RequestParam(required = false) Set<String> types,
+                                          @RequestParam(defaultValue = "false") boolean includeSold) {
+        try {
+            PortfolioValuation valuation = portfolioValuationService.valuate(
+                    from, to, ValuationInterval.fromParameter(interval), types, includeSold);
+            return ResponseEntity.ok(valuation);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Delta sync: changes committed after ?since=, oldest first; omit since to get the current cursor
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(@RequestParam(required = false) Long since,
+                                        @RequestParam(required = false) Integer limit) {
+        try {
+            AssetChangeSet changes = assetChangeFeedService.getChangesSince(since, limit);
+            return ResponseEntity.ok(changes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // EventSource resends the last seen id as Last-Event-ID on reconnect; ?since= covers the first connect
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                    @RequestParam(required = false) Long since) {
+        return assetChangeFeedService.subscribe(lastEventId != null ? lastEventId : since);
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importAssets(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                          @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+                                          @RequestParam(required = false) Integer batchSize,
+                                          InputStream body) throws IOException {
+        try {
+            InputStream in = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body, 64 * 1024) : body;
+            AssetImportReport report = assetImportService.importAssets(
+                    AssetDataFormat.fromContentType(contentType), in, batchSize);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
+    // All or nothing: a rejected batch reports every operation's outcome and leaves no changes behind
+    @PostMapping("/batch")
+    public ResponseEntity<?> applyBatch(@Valid @RequestBody AssetBatchRequest request) {
+        try {
+            return ResponseEntity.ok(assetBatchService.applyBatch(request.getOperations()));
+        } catch (AssetBatchRejectedException e) {
+            AssetBatchResponse response = e.getResponse();
+            boolean invalid = response.getResults().stream().anyMatch(result -> result.getStatus() == 400);
+            return ResponseEntity.status(invalid ? HttpStatus.BAD_REQUEST : HttpStatus.CONFLICT).body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // A client revalidating its copy only needs the version, so the row is not loaded for a 304
     @GetMapping("/{id}")
-    public ResponseEntity<Asset> getAssetById(@PathVariable long id) {
-        Optional<Asset> asset = assetService.getAssetById(id);
-        return asset.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Asset> getAssetById(@PathVariable long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = assetService.getAssetVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            // checkNotModified writes the ETag header itself when it matches
+            if (request.checkNotModified(eTag(version.get()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+        }
 
+        Optional<Asset> asset = assetService.getAssetById(id);
+        return asset.map(found -> ResponseEntity.ok().eTag(eTag(found.getVersion())).body(found))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping
     public ResponseEntity<Asset> createAsset(@RequestBody Asset asset) {
         Asset savedAsset = assetService.saveAsset(asset);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedAsset);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(eTag(savedAsset.getVersion())).body(savedAsset);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Asset> updateAsset(@PathVariable Long id, @RequestBody Asset asset) {
-        Optional<Asset> exists = assetService.getAssetById(id);
-
-        if (exists.isPresent()) {
-            asset.setId(id);
-            assetService.saveAsset(asset);
-
-            return ResponseEntity.ok(asset);
+    public ResponseEntity<?> updateAsset(@PathVariable long id, @Valid @RequestBody Asset asset,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            Optional<Asset> updated = assetService.replaceAsset(id, asset, expectedVersion(ifMatch));
+            return updated.<ResponseEntity<?>>map(found -> ResponseEntity.ok().eTag(eTag(found.getVersion())).body(found))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (AssetVersionMismatchException e) {
+            return preconditionFailed(e);
         }
+    }
 
-        return ResponseEntity.notFound().build();
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchAsset(@PathVariable long id, @Valid @RequestBody AssetPatch patch,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = expectedVersion(ifMatch);
+        if (expectedVersion == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED)
+                    .body(Map.of("error", "PATCH requires an If-Match header with the asset's ETag"));
+        }
+        if (patch.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Patch contains no changes"));
+        }
+        try {
+            Optional<Asset> patched = assetService.patchAsset(id, patch, expectedVersion);
+            return patched.<ResponseEntity<?>>map(found -> ResponseEntity.ok().eTag(eTag(found.getVersion())).body(found))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (AssetVersionMismatchException e) {
+            return preconditionFailed(e);
+        }
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteAsset(@PathVariable Long id) {
-        Optional<Asset> asset = assetService.getAssetById(id);
+    public ResponseEntity<?> deleteAsset(@PathVariable long id,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            if (assetService.deleteAsset(id, expectedVersion(ifMatch))) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.notFound().build();
+        } catch (AssetVersionMismatchException e) {
+            return preconditionFailed(e);
+        }
+    }
 
-        if (asset.isPresent()) {
-            assetService.deleteAssetById(id);
-            return ResponseEntity.noContent().build();
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Null for an absent header or "*"; a weak or unparseable tag can never match a version
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
         }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match does not name a version of this asset");
+    }
 
-        return ResponseEntity.notFound().build();
+    private ResponseEntity<?> preconditionFailed(AssetVersionMismatchException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .eTag(eTag(e.getCurrentVersion()))
+                .body(Map.of("error", e.getMessage()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.nick.assetmanagementapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One entry of a batch: {"op":"update","id":7,"version":3,"stillOwned":false}
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetBatchOperation {
+
+    public enum Type {
+        @JsonProperty("create") CREATE,
+        @JsonProperty("update") UPDATE,
+        @JsonProperty("delete") DELETE
+    }
+
+    @NotNull
+    private Type op;
+
+    private Long id;
+
+    // Optional expected version, the batch counterpart of If-Match
+    private Long version;
+
+    @Valid
+    @JsonUnwrapped
+    private AssetPatch fields = new AssetPatch();
+}
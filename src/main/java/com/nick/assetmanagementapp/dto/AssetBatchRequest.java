@@ -0,0 +1,19 @@
+package com.nick.assetmanagementapp.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetBatchRequest {
+
+    @Valid
+    @NotEmpty
+    private List<AssetBatchOperation> operations;
+}
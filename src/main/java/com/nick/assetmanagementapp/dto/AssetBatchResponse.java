@@ -0,0 +1,39 @@
+package com.nick.assetmanagementapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetBatchResponse {
+
+    // False when any operation failed; the whole batch is then rolled back
+    private boolean applied;
+
+    private List<OperationResult> results;
+
+    // Statuses mirror the single-asset endpoints; 424 marks operations rolled back because another one failed
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class OperationResult {
+
+        private int index;
+
+        private AssetBatchOperation.Type op;
+
+        private int status;
+
+        private Long id;
+
+        private Long version;
+
+        private String error;
+    }
+}
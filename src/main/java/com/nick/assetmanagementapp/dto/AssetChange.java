@@ -0,0 +1,28 @@
+package com.nick.assetmanagementapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.nick.assetmanagementapp.event.AssetChangeEvent;
+import com.nick.assetmanagementapp.model.Asset;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AssetChange {
+
+    private long sequence;
+
+    private AssetChangeEvent.Type type;
+
+    private long assetId;
+
+    // State as committed; absent for deletions
+    private Asset asset;
+
+    private Instant committedAt;
+}
@@ -0,0 +1,24 @@
+package com.nick.assetmanagementapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetChangeSet {
+
+    private List<AssetChange> changes;
+
+    // Pass as ?since= on the next call
+    private long lastSequence;
+
+    // True when more changes are waiting beyond the requested limit
+    private boolean hasMore;
+
+    // The requested sequence is no longer buffered: reload the asset list, then continue from lastSequence
+    private boolean resetRequired;
+}
@@ -0,0 +1,19 @@
+package com.nick.assetmanagementapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetFilter {
+
+    private String type;
+
+    private Boolean stillOwned;
+
+    private Double minPrice;
+
+    private Double maxPrice;
+}
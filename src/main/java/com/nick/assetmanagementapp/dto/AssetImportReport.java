@@ -0,0 +1,36 @@
+package com.nick.assetmanagementapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class AssetImportReport {
+
+    private long rowsRead;
+
+    private long imported;
+
+    private long failed;
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+
+    // Capped so a completely broken file cannot blow up the response
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        private long row;
+
+        private String message;
+    }
+}
@@ -0,0 +1,19 @@
+package com.nick.assetmanagementapp.dto;
+
+import com.nick.assetmanagementapp.model.Asset;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetPage {
+
+    private List<Asset> items;
+
+    // Opaque token for the next page, null once the listing is exhausted
+    private String nextCursor;
+}
@@ -0,0 +1,34 @@
+package com.nick.assetmanagementapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Field-level changes for PATCH; null fields are left as they are
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetPatch {
+
+    @Size(min = 2, max = 50)
+    private String name;
+
+    private String type;
+
+    private Double price;
+
+    private Boolean stillOwned;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate purchaseDate;
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return name == null && type == null && price == null && stillOwned == null && purchaseDate == null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.nick.assetmanagementapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// An asset holding only the fields a client asked for; every column is non-null,
+// so a null here means the field was not requested and is left out of the response
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PartialAsset {
+
+    private Long id;
+
+    private String name;
+
+    private String type;
+
+    private Double price;
+
+    private Boolean stillOwned;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate purchaseDate;
+
+    private Long version;
+}
@@ -0,0 +1,18 @@
+package com.nick.assetmanagementapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PartialAssetPage {
+
+    private List<PartialAsset> items;
+
+    // Same cursor format as AssetPage, so clients can switch fieldsets between pages
+    private String nextCursor;
+}
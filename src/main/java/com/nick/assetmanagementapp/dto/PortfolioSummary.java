@@ -0,0 +1,40 @@
+package com.nick.assetmanagementapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioSummary {
+
+    private long totalAssets;
+
+    private long ownedCount;
+
+    private long disposedCount;
+
+    private double ownedValue;
+
+    private double disposedValue;
+
+    private Map<String, Totals> valueByType;
+
+    private Map<Integer, Totals> spendByPurchaseYear;
+
+    private Instant lastReconciledAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Totals {
+
+        private long count;
+
+        private double totalPrice;
+    }
+}
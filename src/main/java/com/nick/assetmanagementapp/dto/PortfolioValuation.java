@@ -0,0 +1,22 @@
+package com.nick.assetmanagementapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioValuation {
+
+    private List<LocalDate> dates;
+
+    private ValuationSeries total;
+
+    // Depreciation curves of each type present by the last date
+    private Map<String, ValuationSeries> byType;
+}
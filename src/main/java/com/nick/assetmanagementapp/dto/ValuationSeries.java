@@ -0,0 +1,20 @@
+package com.nick.assetmanagementapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Parallel arrays, one entry per valuation date
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValuationSeries {
+
+    // Assets purchased on or before the date
+    private long[] holdings;
+
+    private double[] costBasis;
+
+    // Cost basis after depreciation up to the date
+    private double[] value;
+}
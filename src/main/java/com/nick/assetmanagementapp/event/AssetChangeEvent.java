@@ -0,0 +1,21 @@
+package com.nick.assetmanagementapp.event;
+
+import com.nick.assetmanagementapp.model.Asset;
+
+// Published after an asset is written; asset is null for deletions
+public record AssetChangeEvent(Type type, long assetId, Asset asset) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static AssetChangeEvent saved(Asset asset, boolean created) {
+        return new AssetChangeEvent(created ? Type.CREATED : Type.UPDATED, asset.getId(), asset);
+    }
+
+    public static AssetChangeEvent deleted(long assetId) {
+        return new AssetChangeEvent(Type.DELETED, assetId, null);
+    }
+}
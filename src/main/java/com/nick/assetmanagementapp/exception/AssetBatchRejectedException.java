@@ -0,0 +1,16 @@
+package com.nick.assetmanagementapp.exception;
+
+import com.nick.assetmanagementapp.dto.AssetBatchResponse;
+import lombok.Getter;
+
+// Thrown out of the batch transaction so it rolls back, carrying the per-operation outcome
+@Getter
+public class AssetBatchRejectedException extends RuntimeException {
+
+    private final AssetBatchResponse response;
+
+    public AssetBatchRejectedException(AssetBatchResponse response) {
+        super("Asset batch rejected");
+        this.response = response;
+    }
+}
@@ -0,0 +1,15 @@
+package com.nick.assetmanagementapp.exception;
+
+import lombok.Getter;
+
+// The asset exists but was changed since the version the client sent in If-Match
+@Getter
+public class AssetVersionMismatchException extends RuntimeException {
+
+    private final long currentVersion;
+
+    public AssetVersionMismatchException(long assetId, long currentVersion) {
+        super("Asset " + assetId + " is at version " + currentVersion);
+        this.currentVersion = currentVersion;
+    }
+}
@@ -0,0 +1,117 @@
+package com.nick.assetmanagementapp.journal;
+
+import com.assetmanagement.common.journal.MutationJournal;
+import com.nick.assetmanagementapp.event.AssetChangeEvent;
+import com.nick.assetmanagementapp.model.Asset;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+// Durable history of committed asset changes, keyed by asset id, from which in-memory projections
+// can be rebuilt by replay instead of a table scan
+@Component
+@ConditionalOnProperty(name = "app.journal.enabled", havingValue = "true")
+public class AssetMutationJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(AssetMutationJournal.class);
+
+    private static final byte CREATED = 1;
+    private static final byte UPDATED = 2;
+
+    private final MutationJournal journal;
+    private final boolean sync;
+
+    public AssetMutationJournal(@Value("${app.journal.directory:journal}") String directory,
+                                @Value("${app.journal.segment-bytes:67108864}") int segmentBytes,
+                                @Value("${app.journal.sync:true}") boolean sync) throws IOException {
+        this.journal = MutationJournal.open(Path.of(directory, "assets"), segmentBytes);
+        this.sync = sync;
+    }
+
+    // Written after commit so rolled back changes never reach the journal
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetChange(AssetChangeEvent event) {
+        try {
+            long sequence = switch (event.type()) {
+                case CREATED -> journal.append(event.assetId(), CREATED, encode(event.asset()));
+                case UPDATED -> journal.append(event.assetId(), UPDATED, encode(event.asset()));
+                case DELETED -> journal.append(event.assetId(), MutationJournal.TOMBSTONE, new byte[0]);
+            };
+            if (sync) {
+                journal.awaitDurable(sequence);
+            }
+        } catch (RuntimeException e) {
+            // The change is already committed; failing the request now would not undo it
+            log.error("Could not journal {} of asset {}", event.type(), event.assetId(), e);
+        }
+    }
+
+    public long lastSequence() {
+        return journal.lastSequence();
+    }
+
+    // Replays changes after the given sequence as the events that produced them
+    public long replay(long afterSequence, Consumer<AssetChangeEvent> consumer) {
+        return journal.replay(afterSequence, (sequence, key, type, payload) -> consumer.accept(
+                type == MutationJournal.TOMBSTONE
+                        ? AssetChangeEvent.deleted(key)
+                        : AssetChangeEvent.saved(decode(key, payload), type == CREATED)));
+    }
+
+    @Scheduled(fixedDelayString = "${app.journal.compaction-interval-ms:3600000}",
+            initialDelayString = "${app.journal.compaction-interval-ms:3600000}")
+    public void compact() {
+        try {
+            journal.compact();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Asset journal compaction failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        journal.close();
+    }
+
+    static byte[] encode(Asset asset) {
+        byte[] name = asset.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] type = asset.getType().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(8 + 8 + 1 + 8 + 4 + name.length + 4 + type.length)
+                .putLong(asset.getVersion())
+                .putDouble(asset.getPrice())
+                .put((byte) (asset.isStillOwned() ? 1 : 0))
+                .putLong(asset.getPurchaseDate().toEpochDay())
+                .putInt(name.length).put(name)
+                .putInt(type.length).put(type)
+                .array();
+    }
+
+    static Asset decode(long id, ByteBuffer payload) {
+        ByteBuffer in = payload.duplicate();
+        long version = in.getLong();
+        double price = in.getDouble();
+        boolean stillOwned = in.get() == 1;
+        LocalDate purchaseDate = LocalDate.ofEpochDay(in.getLong());
+        String name = readString(in);
+        String type = readString(in);
+        return new Asset(id, name, type, price, stillOwned, purchaseDate, version);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
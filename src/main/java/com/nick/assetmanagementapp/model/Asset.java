@@ -2,6 +2,7 @@ package com.nick.assetmanagementapp.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -10,30 +11,45 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "assets")
+@Table(name = "assets", indexes = {
+        @Index(name = "idx_assets_purchase_date_id", columnList = "purchaseDate, id"),
+        @Index(name = "idx_assets_type_id", columnList = "type, id"),
+        @Index(name = "idx_assets_still_owned_id", columnList = "stillOwned, id"),
+        @Index(name = "idx_assets_price", columnList = "price")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Asset {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "asset_seq")
+    @SequenceGenerator(name = "asset_seq", sequenceName = "asset_seq", allocationSize = 50)
     private long id;
 
     @Column(nullable = false)
+    @NotNull
     @Size(min = 2, max = 50)
     private String name;
 
     @Column(nullable = false)
+    @NotNull
     private String type;
 
     @Column(nullable = false)
+    @NotNull
     private Double price;
 
     @Column(nullable = false)
     private boolean stillOwned;
 
     @Column(nullable = false)
+    @NotNull
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
     private LocalDate purchaseDate;
+
+    // Incremented by every write and exposed to clients as the ETag
+    @Version
+    @Column(nullable = false)
+    private long version;
 }
@@ -1,9 +1,33 @@
 package com.nick.assetmanagementapp.repository;
 
 import com.nick.assetmanagementapp.model.Asset;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface AssetRepository extends JpaRepository<Asset, Long> {
+public interface AssetRepository extends JpaRepository<Asset, Long>, JpaSpecificationExecutor<Asset> {
+
+    // Must be consumed inside a transaction and closed by the caller
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select a from Asset a order by a.id")
+    Stream<Asset> streamAllOrderById();
+
+    // Only the columns a valuation needs, as id, type, price, stillOwned, purchaseDate rows
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("select a.id, a.type, a.price, a.stillOwned, a.purchaseDate from Asset a")
+    Stream<Object[]> streamValuationFields();
+
+    @Query("select a.version from Asset a where a.id = :id")
+    Optional<Long> findVersionById(long id);
 }
@@ -0,0 +1,340 @@
+package com.nick.assetmanagementapp.service;
+
+import com.nick.assetmanagementapp.dto.AssetBatchOperation;
+import com.nick.assetmanagementapp.dto.AssetBatchResponse;
+import com.nick.assetmanagementapp.dto.AssetBatchResponse.OperationResult;
+import com.nick.assetmanagementapp.dto.AssetPatch;
+import com.nick.assetmanagementapp.event.AssetChangeEvent;
+import com.nick.assetmanagementapp.exception.AssetBatchRejectedException;
+import com.nick.assetmanagementapp.model.Asset;
+import com.nick.assetmanagementapp.repository.AssetRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Applies many asset mutations in one transaction with few statements: inserts go out as JDBC
+// batches, identical updates become one UPDATE ... WHERE id IN (...), and the remaining updates
+// and deletes are sent as one JDBC batch per statement shape so each operation gets its own row count
+@Service
+public class AssetBatchService {
+
+    private static final int MAX_IN_LIST = 1000;
+    private static final String NOT_APPLIED = "Not applied because another operation in the batch failed";
+
+    private final EntityManager entityManager;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final AssetRepository assetRepository;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.assets.batch.max-operations:5000}")
+    private int maxOperations;
+
+    public AssetBatchService(EntityManager entityManager, NamedParameterJdbcTemplate jdbcTemplate,
+                             AssetRepository assetRepository, Validator validator,
+                             ApplicationEventPublisher eventPublisher) {
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.assetRepository = assetRepository;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Creates run first, then updates, then deletes; an asset id may appear only once per batch
+    @Transactional
+    public AssetBatchResponse applyBatch(List<AssetBatchOperation> operations) {
+        if (operations.size() > maxOperations) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxOperations + " operations");
+        }
+
+        OperationResult[] results = new OperationResult[operations.size()];
+        Map<Integer, Asset> creates = new LinkedHashMap<>();
+        List<Integer> updates = new ArrayList<>();
+        List<Integer> deletes = new ArrayList<>();
+        Set<Long> referenced = new HashSet<>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            AssetBatchOperation operation = operations.get(i);
+            String error = switch (operation.getOp()) {
+                case CREATE -> {
+                    Asset asset = toAsset(operation.getFields());
+                    creates.put(i, asset);
+                    yield validate(asset);
+                }
+                case UPDATE -> operation.getFields().isEmpty()
+                        ? "Update contains no changes"
+                        : claimId(operation, referenced, updates, i);
+                case DELETE -> claimId(operation, referenced, deletes, i);
+            };
+            if (error != null) {
+                results[i] = result(i, operation, 400, null, error);
+            }
+        }
+        rejectIfAnyFailed(operations, results);
+
+        insert(operations, creates, results);
+        update(operations, updates, results);
+        delete(operations, deletes, results);
+        rejectIfAnyFailed(operations, results);
+
+        creates.values().forEach(asset -> eventPublisher.publishEvent(AssetChangeEvent.saved(asset, true)));
+        if (!updates.isEmpty()) {
+            Map<Long, Integer> indexById = new HashMap<>();
+            updates.forEach(i -> indexById.put(operations.get(i).getId(), i));
+            for (Asset asset : assetRepository.findAllById(indexById.keySet())) {
+                results[indexById.get(asset.getId())].setVersion(asset.getVersion());
+                eventPublisher.publishEvent(AssetChangeEvent.saved(asset, false));
+            }
+        }
+        deletes.forEach(i -> eventPublisher.publishEvent(AssetChangeEvent.deleted(operations.get(i).getId())));
+
+        return new AssetBatchResponse(true, Arrays.asList(results));
+    }
+
+    private void insert(List<AssetBatchOperation> operations, Map<Integer, Asset> creates, OperationResult[] results) {
+        if (creates.isEmpty()) {
+            return;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(Math.min(creates.size(), MAX_IN_LIST));
+        try {
+            creates.values().forEach(entityManager::persist);
+            entityManager.flush();
+        } finally {
+            session.setJdbcBatchSize(null);
+        }
+        creates.forEach((i, asset) -> {
+            results[i] = result(i, operations.get(i), 201, asset.getId(), null);
+            results[i].setVersion(asset.getVersion());
+        });
+    }
+
+    private void update(List<AssetBatchOperation> operations, List<Integer> updates, OperationResult[] results) {
+        // Identical unconditional changes, such as marking many assets sold, share one statement
+        Map<AssetPatch, List<Integer>> identical = new LinkedHashMap<>();
+        Map<Shape, List<Integer>> individual = new LinkedHashMap<>();
+        for (int i : updates) {
+            AssetBatchOperation operation = operations.get(i);
+            if (operation.getVersion() == null) {
+                identical.computeIfAbsent(operation.getFields(), fields -> new ArrayList<>()).add(i);
+            } else {
+                individual.computeIfAbsent(Shape.of(operation), shape -> new ArrayList<>()).add(i);
+            }
+        }
+        identical.forEach((fields, indexes) -> {
+            if (indexes.size() == 1) {
+                individual.computeIfAbsent(Shape.of(operations.get(indexes.get(0))), shape -> new ArrayList<>())
+                        .addAll(indexes);
+            } else {
+                updateInSet(operations, fields, indexes, results);
+            }
+        });
+        individual.forEach((shape, indexes) -> executeEach(operations, indexes, results, 200,
+                "UPDATE assets SET " + assignments(shape.fields()) + " WHERE id = :id"
+                        + (shape.conditional() ? " AND version = :version" : "")));
+    }
+
+    private void updateInSet(List<AssetBatchOperation> operations, AssetPatch fields, List<Integer> indexes,
+                             OperationResult[] results) {
+        Set<Field> present = Field.presentIn(fields);
+        String sql = "UPDATE assets SET " + assignments(present) + " WHERE id IN (:ids)";
+        for (List<Integer> chunk : partition(indexes)) {
+            List<Long> ids = chunk.stream().map(i -> operations.get(i).getId()).toList();
+            MapSqlParameterSource parameters = Field.bind(fields).addValue("ids", ids);
+            int updated = jdbcTemplate.update(sql, parameters);
+
+            Set<Long> existing = updated == ids.size() ? Set.copyOf(ids) : currentVersions(ids).keySet();
+            for (int i : chunk) {
+                Long id = operations.get(i).getId();
+                results[i] = existing.contains(id)
+                        ? result(i, operations.get(i), 200, id, null)
+                        : result(i, operations.get(i), 404, id, "Asset not found");
+            }
+        }
+    }
+
+    private void delete(List<AssetBatchOperation> operations, List<Integer> deletes, OperationResult[] results) {
+        Map<Boolean, List<Integer>> byCondition = deletes.stream()
+                .collect(Collectors.partitioningBy(i -> operations.get(i).getVersion() != null));
+        byCondition.forEach((conditional, indexes) -> executeEach(operations, indexes, results, 204,
+                "DELETE FROM assets WHERE id = :id" + (conditional ? " AND version = :version" : "")));
+    }
+
+    // One JDBC batch; operations that matched no row are then told apart as missing or stale
+    private void executeEach(List<AssetBatchOperation> operations, List<Integer> indexes, OperationResult[] results,
+                             int successStatus, String sql) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource[] parameters = indexes.stream()
+                .map(i -> Field.bind(operations.get(i).getFields())
+                        .addValue("id", operations.get(i).getId())
+                        .addValue("version", operations.get(i).getVersion()))
+                .toArray(MapSqlParameterSource[]::new);
+        int[] counts = jdbcTemplate.batchUpdate(sql, parameters);
+
+        List<Integer> unmatched = new ArrayList<>();
+        for (int k = 0; k < counts.length; k++) {
+            int i = indexes.get(k);
+            if (counts[k] == 0) {
+                unmatched.add(i);
+            } else if (counts[k] > 0 || counts[k] == Statement.SUCCESS_NO_INFO) {
+                results[i] = result(i, operations.get(i), successStatus, operations.get(i).getId(), null);
+            }
+        }
+        if (unmatched.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> current = currentVersions(unmatched.stream().map(i -> operations.get(i).getId()).toList());
+        for (int i : unmatched) {
+            Long id = operations.get(i).getId();
+            Long version = current.get(id);
+            results[i] = version == null
+                    ? result(i, operations.get(i), 404, id, "Asset not found")
+                    : result(i, operations.get(i), 412, id, "Asset " + id + " is at version " + version);
+        }
+    }
+
+    private Map<Long, Long> currentVersions(List<Long> ids) {
+        Map<Long, Long> versions = new HashMap<>();
+        for (List<Long> chunk : partition(ids)) {
+            jdbcTemplate.query("SELECT id, version FROM assets WHERE id IN (:ids)", Map.of("ids", chunk),
+                    row -> {
+                        versions.put(row.getLong(1), row.getLong(2));
+                    });
+        }
+        return versions;
+    }
+
+    private String claimId(AssetBatchOperation operation, Set<Long> referenced, List<Integer> target, int index) {
+        if (operation.getId() == null) {
+            return "id is required";
+        }
+        if (!referenced.add(operation.getId())) {
+            return "Asset " + operation.getId() + " appears more than once in the batch";
+        }
+        target.add(index);
+        return null;
+    }
+
+    private void rejectIfAnyFailed(List<AssetBatchOperation> operations, OperationResult[] results) {
+        boolean failed = Arrays.stream(results).anyMatch(result -> result != null && result.getStatus() >= 400);
+        if (!failed) {
+            return;
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null || results[i].getStatus() < 400) {
+                AssetBatchOperation operation = operations.get(i);
+                Long id = operation.getOp() == AssetBatchOperation.Type.CREATE ? null : operation.getId();
+                results[i] = result(i, operation, 424, id, NOT_APPLIED);
+            }
+        }
+        throw new AssetBatchRejectedException(new AssetBatchResponse(false, Arrays.asList(results)));
+    }
+
+    private OperationResult result(int index, AssetBatchOperation operation, int status, Long id, String error) {
+        return new OperationResult(index, operation.getOp(), status, id, null, error);
+    }
+
+    private Asset toAsset(AssetPatch fields) {
+        Asset asset = new Asset();
+        asset.setName(fields.getName());
+        asset.setType(fields.getType());
+        asset.setPrice(fields.getPrice());
+        asset.setStillOwned(Boolean.TRUE.equals(fields.getStillOwned()));
+        asset.setPurchaseDate(fields.getPurchaseDate());
+        return asset;
+    }
+
+    private String validate(Asset asset) {
+        Set<ConstraintViolation<Asset>> violations = validator.validate(asset);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static String assignments(Set<Field> fields) {
+        StringBuilder sql = new StringBuilder();
+        for (Field field : fields) {
+            sql.append(field.column).append(" = :").append(field.column).append(", ");
+        }
+        return sql.append("version = version + 1").toString();
+    }
+
+    private static <T> List<List<T>> partition(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int start = 0; start < values.size(); start += MAX_IN_LIST) {
+            chunks.add(values.subList(start, Math.min(values.size(), start + MAX_IN_LIST)));
+        }
+        return chunks;
+    }
+
+    // Updates touching the same columns with the same kind of guard can share one statement
+    private record Shape(Set<Field> fields, boolean conditional) {
+
+        static Shape of(AssetBatchOperation operation) {
+            return new Shape(Field.presentIn(operation.getFields()), operation.getVersion() != null);
+        }
+    }
+
+    private enum Field {
+        NAME("name", AssetPatch::getName),
+        TYPE("type", AssetPatch::getType),
+        PRICE("price", AssetPatch::getPrice),
+        STILL_OWNED("still_owned", AssetPatch::getStillOwned),
+        PURCHASE_DATE("purchase_date", AssetPatch::getPurchaseDate);
+
+        private final String column;
+        private final Function<AssetPatch, Object> value;
+
+        Field(String column, Function<AssetPatch, Object> value) {
+            this.column = column;
+            this.value = value;
+        }
+
+        static Set<Field> presentIn(AssetPatch patch) {
+            Set<Field> present = EnumSet.noneOf(Field.class);
+            for (Field field : values()) {
+                if (field.value.apply(patch) != null) {
+                    present.add(field);
+                }
+            }
+            return present;
+        }
+
+        static MapSqlParameterSource bind(AssetPatch patch) {
+            MapSqlParameterSource parameters = new MapSqlParameterSource();
+            for (Field field : values()) {
+                Object value = field.value.apply(patch);
+                if (value != null) {
+                    parameters.addValue(field.column, value);
+                }
+            }
+            return parameters;
+        }
+    }
+}
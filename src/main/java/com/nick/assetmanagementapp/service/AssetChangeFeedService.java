@@ -0,0 +1,277 @@
+package com.nick.assetmanagementapp.service;
+
+import com.assetmanagement.common.config.IoThreadFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nick.assetmanagementapp.dto.AssetChange;
+import com.nick.assetmanagementapp.dto.AssetChangeSet;
+import com.nick.assetmanagementapp.event.AssetChangeEvent;
+import com.nick.assetmanagementapp.model.Asset;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Sequenced feed of committed asset changes: the most recent ones are kept in a ring buffer for
+// delta sync, and pushed to SSE subscribers. Emitters are async responses, so idle subscribers
+// hold no request thread; a single dispatcher thread queues each change for every subscriber in
+// sequence order, and writer threads drain those queues so a slow client only delays itself.
+@Service
+public class AssetChangeFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(AssetChangeFeedService.class);
+
+    private final ObjectMapper objectMapper;
+    private final long emitterTimeoutMillis;
+    private final int maxLimit;
+    private final int queueSize;
+    private final AssetChange[] buffer;
+    private final long firstSequence;
+
+    private final Object lock = new Object();
+    private long lastSequence;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService dispatcher;
+    private final ExecutorService writers;
+
+    public AssetChangeFeedService(ObjectMapper objectMapper, MeterRegistry meterRegistry, IoThreadFactory ioThreadFactory,
+                                  @Value("${app.assets.changes.buffer-size:10000}") int bufferSize,
+                                  @Value("${app.assets.changes.max-limit:1000}") int maxLimit,
+                                  @Value("${app.assets.changes.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+                                  @Value("${app.assets.changes.subscriber-queue-size:1000}") int queueSize) {
+        this.objectMapper = objectMapper;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.dispatcher = Executors.newSingleThreadExecutor(ioThreadFactory.named("asset-change-feed"));
+        // One writer per subscriber with queued events; a stalled send holds only its own thread
+        this.writers = Executors.newCachedThreadPool(ioThreadFactory.named("asset-change-feed-writer"));
+        this.buffer = new AssetChange[bufferSize];
+        // Sequences start from the boot time in microseconds so they keep increasing across restarts,
+        // and a cursor from a previous run is recognised as no longer buffered
+        this.firstSequence = Math.multiplyExact(System.currentTimeMillis(), 1000L);
+        this.lastSequence = firstSequence;
+        meterRegistry.gauge("asset.changes.subscribers", subscribers, Set::size);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetChange(AssetChangeEvent event) {
+        synchronized (lock) {
+            AssetChange change = new AssetChange(++lastSequence, event.type(), event.assetId(),
+                    event.asset() == null ? null : copyOf(event.asset()), Instant.now());
+            buffer[slot(change.getSequence())] = change;
+            // Queued while holding the lock so broadcasts run in sequence order
+            dispatcher.execute(() -> broadcast(change));
+        }
+    }
+
+    public AssetChangeSet getChangesSince(Long since, Integer limit) {
+        int pageSize = limit == null ? maxLimit : limit;
+        if (pageSize < 1 || pageSize > maxLimit) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxLimit);
+        }
+        synchronized (lock) {
+            if (since == null) {
+                return new AssetChangeSet(List.of(), lastSequence, false, false);
+            }
+            if (!isBuffered(since)) {
+                return new AssetChangeSet(List.of(), lastSequence, false, true);
+            }
+            long until = Math.min(lastSequence, since + pageSize);
+            List<AssetChange> changes = new ArrayList<>((int) (until - since));
+            for (long sequence = since + 1; sequence <= until; sequence++) {
+                changes.add(buffer[slot(sequence)]);
+            }
+            return new AssetChangeSet(changes, until, until < lastSequence, false);
+        }
+    }
+
+    // Replays what the client missed since lastEventId, or starts from now when it has none
+    public SseEmitter subscribe(Long lastEventId) {
+        return subscribe(new SseEmitter(emitterTimeoutMillis), lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Long lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter, queueSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        dispatcher.execute(() -> {
+            List<AssetChange> missed = new ArrayList<>();
+            long resetAt = -1;
+            synchronized (lock) {
+                if (lastEventId == null) {
+                    subscriber.lastSent = lastSequence;
+                } else if (!isBuffered(lastEventId)) {
+                    resetAt = lastSequence;
+                    subscriber.lastSent = lastSequence;
+                } else {
+                    for (long sequence = lastEventId + 1; sequence <= lastSequence; sequence++) {
+                        missed.add(buffer[slot(sequence)]);
+                    }
+                    subscriber.lastSent = lastSequence;
+                }
+            }
+            // The replay goes out ahead of the queue and does not count against its bound
+            List<SseEmitter.SseEventBuilder> replay = new ArrayList<>(missed.size() + 1);
+            if (resetAt >= 0) {
+                replay.add(SseEmitter.event().name("reset").id(Long.toString(resetAt)).data(resetAt));
+            } else {
+                replay.add(SseEmitter.event().comment("connected"));
+            }
+            for (AssetChange change : missed) {
+                replay.add(toEvent(change, serialize(change)));
+            }
+            subscriber.replay = replay;
+            subscribers.add(subscriber);
+            schedule(subscriber);
+        });
+        return emitter;
+    }
+
+    // Keeps idle connections open through proxies and weeds out clients that went away
+    @Scheduled(fixedRateString = "${app.assets.changes.heartbeat-ms:15000}",
+            initialDelayString = "${app.assets.changes.heartbeat-ms:15000}")
+    public void heartbeat() {
+        dispatcher.execute(() -> {
+            for (Subscriber subscriber : subscribers) {
+                enqueue(subscriber, SseEmitter.event().comment("heartbeat"));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        writers.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private void broadcast(AssetChange change) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        // Serialized once, not once per subscriber
+        String json = serialize(change);
+        for (Subscriber subscriber : subscribers) {
+            // A subscriber whose replay already covered this change skips it
+            if (change.getSequence() > subscriber.lastSent) {
+                subscriber.lastSent = change.getSequence();
+                enqueue(subscriber, toEvent(change, json));
+            }
+        }
+    }
+
+    // Dispatcher thread only. A subscriber whose queue is full has stopped reading; it is dropped
+    // and reconnects with Last-Event-ID, replaying from the buffer instead of holding events here.
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.pending.offer(event)) {
+            schedule(subscriber);
+        } else if (subscribers.remove(subscriber)) {
+            subscriber.pending.clear();
+            IOException cause = new IOException("Subscriber fell " + queueSize + " events behind");
+            // Completing takes the emitter's lock, which a stalled send is holding, so it is left to a writer
+            writers.execute(() -> subscriber.emitter.completeWithError(cause));
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            writers.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            for (SseEmitter.SseEventBuilder event : subscriber.replay) {
+                subscriber.emitter.send(event);
+            }
+            subscriber.replay = List.of();
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.pending.poll()) != null) {
+                subscriber.emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // An event queued after the last poll but before the flag was cleared would otherwise wait for the next one
+        if (!subscriber.pending.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toEvent(AssetChange change, String json) {
+        return SseEmitter.event()
+                .id(Long.toString(change.getSequence()))
+                .name(change.getType().name().toLowerCase())
+                .data(json, MediaType.APPLICATION_JSON);
+    }
+
+    private String serialize(AssetChange change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize asset change {}", change.getSequence(), e);
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Caller holds the lock
+    private boolean isBuffered(long sequence) {
+        long oldest = Math.max(firstSequence, lastSequence - buffer.length);
+        return sequence >= oldest && sequence <= lastSequence;
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % buffer.length);
+    }
+
+    // Entities can change after commit, so the feed keeps its own copy
+    private static Asset copyOf(Asset asset) {
+        return new Asset(asset.getId(), asset.getName(), asset.getType(), asset.getPrice(),
+                asset.isStillOwned(), asset.getPurchaseDate(), asset.getVersion());
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> pending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        // Only touched on the dispatcher thread
+        private long lastSent;
+
+        // Set before the first drain, and only read by the writer holding the draining flag
+        private List<SseEmitter.SseEventBuilder> replay = List.of();
+
+        private Subscriber(SseEmitter emitter, int queueSize) {
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(queueSize);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.nick.assetmanagementapp.service;
+
+import com.nick.assetmanagementapp.model.Asset;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+
+// Position of the last asset returned in a keyset-paginated listing,
+// encoded as an opaque URL-safe token so clients cannot depend on its layout
+public record AssetCursor(AssetSort sort, LocalDate purchaseDate, long id) {
+
+    private static final String VERSION = "v1";
+
+    public static AssetCursor after(AssetSort sort, Asset asset) {
+        return new AssetCursor(sort, asset.getPurchaseDate(), asset.getId());
+    }
+
+    public String encode() {
+        String raw = VERSION + ":" + sort.name() + ":" + purchaseDate.toEpochDay() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static AssetCursor decode(String token, AssetSort expectedSort) {
+        AssetCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            cursor = new AssetCursor(AssetSort.valueOf(parts[1]),
+                    LocalDate.ofEpochDay(Long.parseLong(parts[2])), Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+
+        if (cursor.sort() != expectedSort) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        return cursor;
+    }
+}
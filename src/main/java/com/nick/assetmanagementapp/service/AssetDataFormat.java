@@ -0,0 +1,41 @@
+package com.nick.assetmanagementapp.service;
+
+public enum AssetDataFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    AssetDataFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static AssetDataFormat fromParameter(String value) {
+        for (AssetDataFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported format: " + value);
+    }
+
+    public static AssetDataFormat fromContentType(String value) {
+        for (AssetDataFormat format : values()) {
+            if (value != null && value.toLowerCase().startsWith(format.contentType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported content type: " + value);
+    }
+}
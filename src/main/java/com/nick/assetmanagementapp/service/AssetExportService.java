@@ -0,0 +1,84 @@
+package com.nick.assetmanagementapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nick.assetmanagementapp.model.Asset;
+import com.nick.assetmanagementapp.repository.AssetRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+@Service
+public class AssetExportService {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final AssetRepository assetRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public AssetExportService(AssetRepository assetRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.assetRepository = assetRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportAssets(AssetDataFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        long rows = 0;
+
+        if (format == AssetDataFormat.CSV) {
+            writer.write("id,name,type,price,stillOwned,purchaseDate\n");
+        }
+
+        try (Stream<Asset> assets = assetRepository.streamAllOrderById()) {
+            for (Asset asset : (Iterable<Asset>) assets::iterator) {
+                if (format == AssetDataFormat.CSV) {
+                    writeCsvRow(writer, asset);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(asset));
+                    writer.write('\n');
+                }
+                // Keep the persistence context from growing with every row we stream
+                entityManager.detach(asset);
+                rows++;
+            }
+        }
+
+        writer.flush();
+        return rows;
+    }
+
+    private void writeCsvRow(Writer writer, Asset asset) throws IOException {
+        writer.write(Long.toString(asset.getId()));
+        writer.write(',');
+        writer.write(csvField(asset.getName()));
+        writer.write(',');
+        writer.write(csvField(asset.getType()));
+        writer.write(',');
+        writer.write(asset.getPrice() == null ? "" : asset.getPrice().toString());
+        writer.write(',');
+        writer.write(Boolean.toString(asset.isStillOwned()));
+        writer.write(',');
+        writer.write(asset.getPurchaseDate() == null ? "" : asset.getPurchaseDate().toString());
+        writer.write('\n');
+    }
+
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,57 @@
+package com.nick.assetmanagementapp.service;
+
+import com.nick.assetmanagementapp.dto.PartialAsset;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+// Asset attributes a client can request through ?fields=, named as they appear in the JSON
+public enum AssetField {
+
+    ID("id", (asset, value) -> asset.setId((Long) value)),
+    NAME("name", (asset, value) -> asset.setName((String) value)),
+    TYPE("type", (asset, value) -> asset.setType((String) value)),
+    PRICE("price", (asset, value) -> asset.setPrice((Double) value)),
+    STILL_OWNED("stillOwned", (asset, value) -> asset.setStillOwned((Boolean) value)),
+    PURCHASE_DATE("purchaseDate", (asset, value) -> asset.setPurchaseDate((LocalDate) value)),
+    VERSION("version", (asset, value) -> asset.setVersion((Long) value));
+
+    private final String attribute;
+    private final BiConsumer<PartialAsset, Object> setter;
+
+    AssetField(String attribute, BiConsumer<PartialAsset, Object> setter) {
+        this.attribute = attribute;
+        this.setter = setter;
+    }
+
+    public String attribute() {
+        return attribute;
+    }
+
+    public void copy(Object value, PartialAsset asset) {
+        setter.accept(asset, value);
+    }
+
+    public static Set<AssetField> parse(String fields) {
+        Set<AssetField> parsed = EnumSet.noneOf(AssetField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            parsed.add(Arrays.stream(values())
+                    .filter(field -> field.attribute.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown field: " + trimmed)));
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one of "
+                    + Arrays.stream(values()).map(AssetField::attribute).collect(Collectors.joining(", ")));
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,254 @@
+package com.nick.assetmanagementapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nick.assetmanagementapp.dto.AssetImportReport;
+import com.nick.assetmanagementapp.event.AssetChangeEvent;
+import com.nick.assetmanagementapp.model.Asset;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class AssetImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final List<String> CSV_COLUMNS = List.of("name", "type", "price", "stillowned", "purchasedate");
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.assets.import.batch-size:500}")
+    private int defaultBatchSize;
+
+    public AssetImportService(EntityManager entityManager, TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper, Validator validator,
+                              ApplicationEventPublisher eventPublisher) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public AssetImportReport importAssets(AssetDataFormat format, InputStream in, Integer batchSize) throws IOException {
+        int chunkSize = batchSize == null ? defaultBatchSize : batchSize;
+        if (chunkSize < 1 || chunkSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_BATCH_SIZE);
+        }
+
+        long started = System.nanoTime();
+        AssetImportReport report = new AssetImportReport();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        RowParser parser = format == AssetDataFormat.CSV ? csvParser(reader) : ndjsonParser(reader);
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+
+        ParsedRow row;
+        while ((row = parser.next()) != null) {
+            report.setRowsRead(report.getRowsRead() + 1);
+            String error = row.error() != null ? row.error() : validate(row.asset());
+            if (error != null) {
+                recordError(report, row.number(), error);
+                continue;
+            }
+
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                writeChunk(chunk, chunkSize, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, chunkSize, report);
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        report.setElapsedMillis(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond(elapsedNanos == 0 ? 0 : report.getImported() * 1_000_000_000.0 / elapsedNanos);
+        return report;
+    }
+
+    private void writeChunk(List<ParsedRow> chunk, int batchSize, AssetImportReport report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persistAll(chunk, batchSize));
+            report.setImported(report.getImported() + chunk.size());
+            chunk.forEach(row -> eventPublisher.publishEvent(AssetChangeEvent.saved(row.asset(), true)));
+        } catch (RuntimeException e) {
+            // Retry the chunk row by row so a single bad row only rejects itself
+            for (ParsedRow row : chunk) {
+                row.asset().setId(0);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persistAll(List.of(row), batchSize));
+                    report.setImported(report.getImported() + 1);
+                    eventPublisher.publishEvent(AssetChangeEvent.saved(row.asset(), true));
+                } catch (RuntimeException rowFailure) {
+                    recordError(report, row.number(), rootMessage(rowFailure));
+                }
+            }
+        }
+    }
+
+    private void persistAll(List<ParsedRow> rows, int batchSize) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        try {
+            for (ParsedRow row : rows) {
+                entityManager.persist(row.asset());
+            }
+            entityManager.flush();
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    private String validate(Asset asset) {
+        Set<ConstraintViolation<Asset>> violations = validator.validate(asset);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private void recordError(AssetImportReport report, long rowNumber, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new AssetImportReport.RowError(rowNumber, message));
+        }
+    }
+
+    private String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private RowParser ndjsonParser(BufferedReader reader) {
+        long[] lineNumber = {0};
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+                lineNumber[0]++;
+            } while (line.isBlank());
+
+            try {
+                Asset asset = objectMapper.readValue(line, Asset.class);
+                asset.setId(0);
+                asset.setVersion(0);
+                return new ParsedRow(lineNumber[0], asset, null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(lineNumber[0], null, e.getOriginalMessage());
+            }
+        };
+    }
+
+    private RowParser csvParser(BufferedReader reader) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return () -> null;
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(), i);
+        }
+        for (String column : CSV_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new IllegalArgumentException("Missing CSV column: " + column);
+            }
+        }
+
+        long[] rowNumber = {0};
+        return () -> {
+            List<String> record;
+            do {
+                try {
+                    record = csv.readRecord();
+                } catch (CsvRecordReader.UnterminatedQuoteException e) {
+                    // Reported against the row it opened in; the next read finds the end of the input
+                    return new ParsedRow(++rowNumber[0], null, e.getMessage());
+                }
+                if (record == null) {
+                    return null;
+                }
+                rowNumber[0]++;
+            } while (record.size() == 1 && record.get(0).isBlank());
+
+            try {
+                Asset asset = new Asset();
+                asset.setName(field(record, columns, "name"));
+                asset.setType(field(record, columns, "type"));
+                String price = field(record, columns, "price");
+                asset.setPrice(price == null ? null : Double.valueOf(price));
+                asset.setStillOwned(parseBoolean(field(record, columns, "stillowned")));
+                String purchaseDate = field(record, columns, "purchasedate");
+                asset.setPurchaseDate(purchaseDate == null ? null : LocalDate.parse(purchaseDate));
+                return new ParsedRow(rowNumber[0], asset, null);
+            } catch (NumberFormatException e) {
+                return new ParsedRow(rowNumber[0], null, "price is not a number");
+            } catch (DateTimeParseException e) {
+                return new ParsedRow(rowNumber[0], null, "purchaseDate must be formatted as yyyy-MM-dd");
+            } catch (IllegalArgumentException e) {
+                return new ParsedRow(rowNumber[0], null, e.getMessage());
+            }
+        };
+    }
+
+    private String field(List<String> record, Map<String, Integer> columns, String column) {
+        int index = columns.get(column);
+        if (index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private boolean parseBoolean(String value) {
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(value)) {
+            return false;
+        }
+        throw new IllegalArgumentException("stillOwned must be true or false");
+    }
+
+    private record ParsedRow(long number, Asset asset, String error) {
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        ParsedRow next() throws IOException;
+    }
+}
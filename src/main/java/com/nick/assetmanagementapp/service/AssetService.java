@@ -1,36 +1,275 @@
 package com.nick.assetmanagementapp.service;
 
+import com.nick.assetmanagementapp.dto.AssetFilter;
+import com.nick.assetmanagementapp.dto.AssetPage;
+import com.nick.assetmanagementapp.dto.AssetPatch;
+import com.nick.assetmanagementapp.dto.PartialAsset;
+import com.nick.assetmanagementapp.dto.PartialAssetPage;
+import com.nick.assetmanagementapp.event.AssetChangeEvent;
+import com.nick.assetmanagementapp.exception.AssetVersionMismatchException;
 import com.nick.assetmanagementapp.model.Asset;
 import com.nick.assetmanagementapp.repository.AssetRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class AssetService {
 
     private final AssetRepository assetRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+
+    @Value("${app.assets.page.default-limit:50}")
+    private int defaultPageLimit;
+
+    @Value("${app.assets.page.max-limit:500}")
+    private int maxPageLimit;
 
     @Autowired
-    public AssetService(AssetRepository assetRepository) {
+    public AssetService(AssetRepository assetRepository, ApplicationEventPublisher eventPublisher,
+                        EntityManager entityManager) {
         this.assetRepository = assetRepository;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
     }
 
     public Asset saveAsset(Asset asset) {
-        return assetRepository.save(asset);
+        boolean created = asset.getId() == 0;
+        Asset saved = assetRepository.save(asset);
+        eventPublisher.publishEvent(AssetChangeEvent.saved(saved, created));
+        return saved;
     }
 
     public List<Asset> getAllAssets() {
         return assetRepository.findAll();
     }
 
+    public AssetPage getAssetPage(AssetFilter filter, AssetSort sort, String cursorToken, Integer limit) {
+        int pageSize = pageSize(limit);
+        AssetCursor cursor = decodeCursor(cursorToken, sort);
+
+        // Fetch one extra row to find out whether another page exists without a count query
+        List<Asset> rows = assetRepository.findBy(pageSpecification(filter, sort, cursor),
+                query -> query.sortBy(sort.toSort()).limit(pageSize + 1).all());
+
+        if (rows.size() <= pageSize) {
+            return new AssetPage(rows, null);
+        }
+        List<Asset> items = rows.subList(0, pageSize);
+        return new AssetPage(new ArrayList<>(items), AssetCursor.after(sort, items.get(pageSize - 1)).encode());
+    }
+
+    // Selects only the requested columns, plus the id and purchase date the cursor is built from,
+    // and never loads entities into the persistence context
+    @Transactional(readOnly = true)
+    public PartialAssetPage getPartialAssetPage(AssetFilter filter, AssetSort sort, String cursorToken, Integer limit,
+                                                Set<AssetField> fields) {
+        int pageSize = pageSize(limit);
+        AssetCursor cursor = decodeCursor(cursorToken, sort);
+
+        Set<AssetField> selected = EnumSet.copyOf(fields);
+        selected.add(AssetField.ID);
+        selected.add(AssetField.PURCHASE_DATE);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Asset> root = query.from(Asset.class);
+        query.multiselect(selected.stream()
+                .<Selection<?>>map(field -> root.get(field.attribute()).alias(field.attribute()))
+                .toList());
+        query.where(pageSpecification(filter, sort, cursor).toPredicate(root, query, cb));
+        query.orderBy(QueryUtils.toOrders(sort.toSort(), root, cb));
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(pageSize + 1).getResultList();
+
+        List<PartialAsset> items = new ArrayList<>(Math.min(rows.size(), pageSize));
+        for (Tuple row : rows.subList(0, Math.min(rows.size(), pageSize))) {
+            PartialAsset asset = new PartialAsset();
+            for (AssetField field : fields) {
+                field.copy(row.get(field.attribute()), asset);
+            }
+            items.add(asset);
+        }
+        if (rows.size() <= pageSize) {
+            return new PartialAssetPage(items, null);
+        }
+        Tuple last = rows.get(pageSize - 1);
+        AssetCursor next = new AssetCursor(sort, last.get(AssetField.PURCHASE_DATE.attribute(), LocalDate.class),
+                last.get(AssetField.ID.attribute(), Long.class));
+        return new PartialAssetPage(items, next.encode());
+    }
+
+    private int pageSize(Integer limit) {
+        int pageSize = limit == null ? defaultPageLimit : limit;
+        if (pageSize < 1 || pageSize > maxPageLimit) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxPageLimit);
+        }
+        return pageSize;
+    }
+
+    private AssetCursor decodeCursor(String cursorToken, AssetSort sort) {
+        return cursorToken == null || cursorToken.isBlank()
+                ? null
+                : AssetCursor.decode(cursorToken, sort);
+    }
+
     public Optional<Asset> getAssetById(Long id) {
         return assetRepository.findById(id);
     }
 
-    public void deleteAssetById(Long id) {
-        assetRepository.deleteById(id);
+    public Optional<Long> getAssetVersion(long id) {
+        return assetRepository.findVersionById(id);
+    }
+
+    // A single UPDATE replacing every field, guarded by the version when the client sent one
+    @Transactional
+    public Optional<Asset> replaceAsset(long id, Asset asset, Long expectedVersion) {
+        long version = update(id, expectedVersion, (update, root) -> {
+            update.set(root.get("name"), asset.getName());
+            update.set(root.get("type"), asset.getType());
+            update.set(root.get("price"), asset.getPrice());
+            update.set(root.get("stillOwned"), asset.isStillOwned());
+            update.set(root.get("purchaseDate"), asset.getPurchaseDate());
+        });
+        if (version < 0) {
+            return Optional.empty();
+        }
+        asset.setId(id);
+        asset.setVersion(version);
+        eventPublisher.publishEvent(AssetChangeEvent.saved(asset, false));
+        return Optional.of(asset);
+    }
+
+    // Only the fields present in the patch are written; the row is read back afterwards because
+    // the response and the portfolio aggregates need the whole asset
+    @Transactional
+    public Optional<Asset> patchAsset(long id, AssetPatch patch, long expectedVersion) {
+        long version = update(id, expectedVersion, (update, root) -> {
+            if (patch.getName() != null) {
+                update.set(root.get("name"), patch.getName());
+            }
+            if (patch.getType() != null) {
+                update.set(root.get("type"), patch.getType());
+            }
+            if (patch.getPrice() != null) {
+                update.set(root.get("price"), patch.getPrice());
+            }
+            if (patch.getStillOwned() != null) {
+                update.set(root.get("stillOwned"), patch.getStillOwned());
+            }
+            if (patch.getPurchaseDate() != null) {
+                update.set(root.get("purchaseDate"), patch.getPurchaseDate());
+            }
+        });
+        if (version < 0) {
+            return Optional.empty();
+        }
+        Optional<Asset> patched = assetRepository.findById(id);
+        patched.ifPresent(asset -> eventPublisher.publishEvent(AssetChangeEvent.saved(asset, false)));
+        return patched;
+    }
+
+    // A single DELETE, so there is no load before the delete and no race between the two
+    @Transactional
+    public boolean deleteAsset(long id, Long expectedVersion) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<Asset> delete = cb.createCriteriaDelete(Asset.class);
+        Root<Asset> root = delete.from(Asset.class);
+        delete.where(identifiedBy(cb, root, id, expectedVersion));
+        if (entityManager.createQuery(delete).executeUpdate() == 0) {
+            rejectIfChanged(id, expectedVersion);
+            return false;
+        }
+        eventPublisher.publishEvent(AssetChangeEvent.deleted(id));
+        return true;
+    }
+
+    // Returns the new version, or -1 when the asset does not exist
+    private long update(long id, Long expectedVersion, Assignments assignments) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Asset> update = cb.createCriteriaUpdate(Asset.class);
+        Root<Asset> root = update.from(Asset.class);
+        assignments.apply(update, root);
+        update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+        update.where(identifiedBy(cb, root, id, expectedVersion));
+
+        if (entityManager.createQuery(update).executeUpdate() == 0) {
+            rejectIfChanged(id, expectedVersion);
+            return -1;
+        }
+        return expectedVersion != null ? expectedVersion + 1 : assetRepository.findVersionById(id).orElseThrow();
+    }
+
+    private Predicate identifiedBy(CriteriaBuilder cb, Root<Asset> root, long id, Long expectedVersion) {
+        Predicate byId = cb.equal(root.get("id"), id);
+        return expectedVersion == null ? byId : cb.and(byId, cb.equal(root.get("version"), expectedVersion));
+    }
+
+    // Only reached when nothing matched: tells a stale version apart from a missing asset
+    private void rejectIfChanged(long id, Long expectedVersion) {
+        if (expectedVersion != null) {
+            assetRepository.findVersionById(id).ifPresent(current -> {
+                throw new AssetVersionMismatchException(id, current);
+            });
+        }
+    }
+
+    private Specification<Asset> pageSpecification(AssetFilter filter, AssetSort sort, AssetCursor cursor) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getType() != null) {
+                predicates.add(cb.equal(root.get("type"), filter.getType()));
+            }
+            if (filter.getStillOwned() != null) {
+                predicates.add(cb.equal(root.get("stillOwned"), filter.getStillOwned()));
+            }
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.getMinPrice()));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.getMaxPrice()));
+            }
+
+            // Seek past the last row of the previous page instead of using OFFSET
+            if (cursor != null) {
+                if (sort == AssetSort.PURCHASE_DATE) {
+                    predicates.add(cb.or(
+                            cb.lessThan(root.get("purchaseDate"), cursor.purchaseDate()),
+                            cb.and(
+                                    cb.equal(root.get("purchaseDate"), cursor.purchaseDate()),
+                                    cb.lessThan(root.get("id"), cursor.id()))));
+                } else {
+                    predicates.add(cb.greaterThan(root.get("id"), cursor.id()));
+                }
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    @FunctionalInterface
+    private interface Assignments {
+        void apply(CriteriaUpdate<Asset> update, Root<Asset> root);
     }
 }
@@ -0,0 +1,32 @@
+package com.nick.assetmanagementapp.service;
+
+import org.springframework.data.domain.Sort;
+
+public enum AssetSort {
+
+    // Oldest assets first, backed by the primary key
+    ID(Sort.by(Sort.Direction.ASC, "id")),
+
+    // Most recent purchases first, backed by idx_assets_purchase_date_id
+    PURCHASE_DATE(Sort.by(Sort.Direction.DESC, "purchaseDate", "id"));
+
+    private final Sort sort;
+
+    AssetSort(Sort sort) {
+        this.sort = sort;
+    }
+
+    public Sort toSort() {
+        return sort;
+    }
+
+    public static AssetSort fromParameter(String value) {
+        if (value == null || value.isBlank() || value.equalsIgnoreCase("id")) {
+            return ID;
+        }
+        if (value.equalsIgnoreCase("purchaseDate")) {
+            return PURCHASE_DATE;
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + value);
+    }
+}
@@ -0,0 +1,403 @@
+package com.nick.assetmanagementapp.service;
+
+import com.nick.assetmanagementapp.dto.PortfolioValuation;
+import com.nick.assetmanagementapp.dto.ValuationSeries;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToDoubleFunction;
+
+// Columnar copy of the asset fields a valuation needs: one primitive array per field, purchase dates
+// as epoch days and types dictionary-encoded, so a scan walks a few dense arrays instead of entities.
+// Deletes move the last row into the gap, keeping the columns packed.
+public class AssetValuationIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_TASK_ROWS = 1 << 16;
+    private static final double DAYS_PER_YEAR = 365.25;
+    private static final int MAX_SPAN_DAYS = 1 << 16;
+    // Cells across all partial scans of one valuation, three arrays each, so about 6 MB per valuation
+    private static final int MAX_CELLS = 1 << 18;
+
+    private final ExecutorService scanPool;
+    private final int parallelism;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> typeCodes = new HashMap<>();
+    private final List<String> typeNames = new ArrayList<>();
+    private final LongIntMap rowsById = new LongIntMap();
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] purchaseDays = new int[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private int[] types = new int[INITIAL_CAPACITY];
+    private boolean[] owned = new boolean[INITIAL_CAPACITY];
+    private int size;
+    private int earliestDay = Integer.MAX_VALUE;
+
+    // Scans on the calling thread only
+    public AssetValuationIndex() {
+        this(null, 1);
+    }
+
+    // Large scans split into at most parallelism row ranges, all but one of them run on scanPool
+    public AssetValuationIndex(ExecutorService scanPool, int parallelism) {
+        this.scanPool = scanPool;
+        this.parallelism = scanPool == null ? 1 : Math.max(1, parallelism);
+    }
+
+    public void put(long id, String type, double price, LocalDate purchaseDate, boolean stillOwned) {
+        lock.writeLock().lock();
+        try {
+            int row = rowsById.get(id);
+            if (row < 0) {
+                if (size == ids.length) {
+                    grow();
+                }
+                row = size++;
+                rowsById.put(id, row);
+            }
+            ids[row] = id;
+            purchaseDays[row] = (int) purchaseDate.toEpochDay();
+            earliestDay = Math.min(earliestDay, purchaseDays[row]);
+            prices[row] = price;
+            types[row] = typeCodes.computeIfAbsent(type, name -> {
+                typeNames.add(name);
+                return typeNames.size() - 1;
+            });
+            owned[row] = stillOwned;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int row = rowsById.remove(id);
+            if (row < 0) {
+                return;
+            }
+            int last = --size;
+            if (row != last) {
+                ids[row] = ids[last];
+                purchaseDays[row] = purchaseDays[last];
+                prices[row] = prices[last];
+                types[row] = types[last];
+                owned[row] = owned[last];
+                rowsById.put(ids[row], row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Value on each date of the assets purchased by then, each depreciated by its type's annual
+    // declining-balance rate. Without sale dates, sold assets are either left out or counted throughout.
+    public PortfolioValuation valuate(List<LocalDate> dates, Set<String> typeFilter, boolean includeSold,
+                                      ToDoubleFunction<String> annualDepreciation) {
+        int[] days = dates.stream().mapToInt(date -> (int) date.toEpochDay()).toArray();
+        if (days[days.length - 1] - days[0] >= MAX_SPAN_DAYS) {
+            throw new IllegalArgumentException("Valuation dates must span fewer than " + MAX_SPAN_DAYS + " days");
+        }
+
+        lock.readLock().lock();
+        try {
+            if ((long) typeNames.size() * days.length > MAX_CELLS) {
+                throw new IllegalArgumentException("Too many dates for " + typeNames.size()
+                        + " asset types; use a coarser interval or a shorter range");
+            }
+            Query query = new Query(days, typeFilter, includeSold, annualDepreciation);
+            // One partial per task, so wider queries get fewer tasks and small indexes none at all
+            int tasks = Math.min(Math.min(parallelism, MAX_CELLS / (query.typeCount * query.points)),
+                    (size + MIN_TASK_ROWS - 1) / MIN_TASK_ROWS);
+            List<Future<Scan>> partials = new ArrayList<>();
+            for (int task = 1; task < tasks; task++) {
+                int fromRow = (int) ((long) size * task / tasks);
+                int toRow = (int) ((long) size * (task + 1) / tasks);
+                partials.add(scanPool.submit(() -> new Scan(query).add(fromRow, toRow)));
+            }
+            Scan scan = new Scan(query).add(0, tasks > 1 ? (int) ((long) size / tasks) : size);
+            // Pool tasks read the columns, so every one must finish before the read lock is released
+            for (Future<Scan> partial : partials) {
+                scan.merge(await(partial));
+            }
+            return scan.toValuation(dates);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Scan await(Future<Scan> partial) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return partial.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        purchaseDays = Arrays.copyOf(purchaseDays, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        types = Arrays.copyOf(types, capacity);
+        owned = Arrays.copyOf(owned, capacity);
+    }
+
+    // Lookup tables shared by every task of one valuation. Depreciation is folded in by weighting each
+    // price to its value at the first date on or after its purchase, so the value at a date is the
+    // value at the previous one depreciated by the gap, plus the weights of that date's purchases.
+    // Weights never exceed the price, whatever the rate. They come from a per-day table, one per
+    // distinct rate, instead of an exp per asset; purchase days older than the tables reach fall
+    // back to computing the exp.
+    private final class Query {
+
+        private final int[] days;
+        private final int points;
+        private final boolean includeSold;
+        private final int typeCount;
+        private final boolean[] included;
+        private final double[] retention;
+        private final int tableStart;
+        private final int[] pointByDay;
+        private final int[] factorOffset;
+        private final double[] factors;
+
+        Query(int[] days, Set<String> typeFilter, boolean includeSold, ToDoubleFunction<String> annualDepreciation) {
+            this.days = days;
+            this.points = days.length;
+            this.includeSold = includeSold;
+            this.typeCount = typeNames.size();
+            int first = days[0];
+            int last = days[points - 1];
+            this.tableStart = Math.max(Math.min(earliestDay, first), last - MAX_SPAN_DAYS + 1);
+            int span = last - tableStart + 1;
+
+            pointByDay = new int[span];
+            for (int day = 0, point = 0; day < span; day++) {
+                while (days[point] < tableStart + day) {
+                    point++;
+                }
+                pointByDay[day] = point;
+            }
+
+            included = new boolean[typeCount];
+            retention = new double[typeCount];
+            factorOffset = new int[typeCount];
+            Map<Double, Integer> tables = new HashMap<>();
+            for (int type = 0; type < typeCount; type++) {
+                String name = typeNames.get(type);
+                included[type] = typeFilter == null || typeFilter.contains(name);
+                // Daily log retention, so a value is price * exp(retention * age in days)
+                retention[type] = Math.log1p(-annualDepreciation.applyAsDouble(name)) / DAYS_PER_YEAR;
+                factorOffset[type] = tables.computeIfAbsent(retention[type], rate -> tables.size()) * span;
+            }
+            factors = new double[tables.size() * span];
+            tables.forEach((rate, table) -> {
+                for (int day = 0; day < span; day++) {
+                    factors[table * span + day] = Math.exp(rate * (days[pointByDay[day]] - tableStart - day));
+                }
+            });
+        }
+    }
+
+    private final class Scan {
+
+        private final Query query;
+        private final long[] counts;
+        private final double[] costs;
+        private final double[] weights;
+
+        Scan(Query query) {
+            this.query = query;
+            this.counts = new long[query.typeCount * query.points];
+            this.costs = new double[query.typeCount * query.points];
+            this.weights = new double[query.typeCount * query.points];
+        }
+
+        Scan add(int fromRow, int toRow) {
+            int points = query.points;
+            int tableStart = query.tableStart;
+            int span = query.pointByDay.length;
+            boolean[] included = query.included;
+            for (int row = fromRow; row < toRow; row++) {
+                int type = types[row];
+                int day = purchaseDays[row] - tableStart;
+                if (!included[type] || day >= span || !(query.includeSold || owned[row])) {
+                    continue;
+                }
+                double price = prices[row];
+                int cell;
+                double weight;
+                if (day >= 0) {
+                    cell = type * points + query.pointByDay[day];
+                    weight = price * query.factors[query.factorOffset[type] + day];
+                } else {
+                    cell = type * points;
+                    weight = price * Math.exp(query.retention[type] * (query.days[0] - purchaseDays[row]));
+                }
+                counts[cell]++;
+                costs[cell] += price;
+                weights[cell] += weight;
+            }
+            return this;
+        }
+
+        void merge(Scan other) {
+            for (int cell = 0; cell < counts.length; cell++) {
+                counts[cell] += other.counts[cell];
+                costs[cell] += other.costs[cell];
+                weights[cell] += other.weights[cell];
+            }
+        }
+
+        PortfolioValuation toValuation(List<LocalDate> dates) {
+            int points = query.points;
+            int[] days = query.days;
+            double[] retention = query.retention;
+            ValuationSeries total = new ValuationSeries(new long[points], new double[points], new double[points]);
+            Map<String, ValuationSeries> byType = new TreeMap<>();
+            for (int type = 0; type < query.typeCount; type++) {
+                ValuationSeries series = new ValuationSeries(new long[points], new double[points], new double[points]);
+                long holdings = 0;
+                double cost = 0;
+                double value = 0;
+                for (int point = 0; point < points; point++) {
+                    int cell = type * points + point;
+                    holdings += counts[cell];
+                    cost += costs[cell];
+                    if (point > 0) {
+                        value *= Math.exp(retention[type] * (days[point] - days[point - 1]));
+                    }
+                    value += weights[cell];
+                    series.getHoldings()[point] = holdings;
+                    series.getCostBasis()[point] = cost;
+                    series.getValue()[point] = value;
+                    total.getHoldings()[point] += holdings;
+                    total.getCostBasis()[point] += cost;
+                    total.getValue()[point] += value;
+                }
+                if (holdings > 0) {
+                    byType.put(typeNames.get(type), rounded(series));
+                }
+            }
+            return new PortfolioValuation(dates, rounded(total), byType);
+        }
+
+        private ValuationSeries rounded(ValuationSeries series) {
+            for (int point = 0; point < query.points; point++) {
+                series.getCostBasis()[point] = Math.round(series.getCostBasis()[point] * 100) / 100.0;
+                series.getValue()[point] = Math.round(series.getValue()[point] * 100) / 100.0;
+            }
+            return series;
+        }
+    }
+
+    // Open-addressing map from asset id to row; boxed keys would outweigh the columns themselves.
+    // Asset ids start at 1, so 0 marks an empty slot.
+    private static final class LongIntMap {
+
+        private long[] keys = new long[16];
+        private int[] values = new int[16];
+        private int size;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == 0) {
+                keys[slot] = key;
+                size++;
+            }
+            values[slot] = value;
+        }
+
+        int remove(long key) {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (keys[slot] != key) {
+                if (keys[slot] == 0) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            int removed = values[slot];
+            // Shift later entries of the probe run back so lookups never stop at the hole
+            int hole = slot;
+            for (int next = (hole + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+                int home = slot(keys[next], mask);
+                boolean reachable = hole <= next ? home > hole && home <= next : home > hole || home <= next;
+                if (!reachable) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+            }
+            keys[hole] = 0;
+            size--;
+            return removed;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.nick.assetmanagementapp.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Minimal RFC 4180 reader: quoted fields may contain commas, escaped quotes and line breaks
+class CsvRecordReader {
+
+    private final Reader reader;
+    private int pushedBack = -2;
+    private long line = 1;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Returns the next record, or null once the input is exhausted
+    List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        long quoteLine = line;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new UnterminatedQuoteException(quoteLine);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+                quoteLine = line;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        pushedBack = next;
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        int c = reader.read();
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    // The quoted field ran to the end of the input, so no record follows it
+    static final class UnterminatedQuoteException extends IOException {
+
+        UnterminatedQuoteException(long line) {
+            super("Unterminated quoted field starting on line " + line);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.nick.assetmanagementapp.service;
+
+import com.assetmanagement.common.projection.ProjectionRebuilder;
+import com.nick.assetmanagementapp.dto.PortfolioSummary;
+import com.nick.assetmanagementapp.event.AssetChangeEvent;
+import com.nick.assetmanagementapp.journal.AssetMutationJournal;
+import com.nick.assetmanagementapp.model.Asset;
+import com.nick.assetmanagementapp.repository.AssetRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Keeps dashboard rollups in memory and adjusts them per mutation instead of scanning the table
+@Service
+public class PortfolioAggregationService {
+
+    private static final Logger log = LoggerFactory.getLogger(PortfolioAggregationService.class);
+
+    private final AssetRepository assetRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectProvider<AssetMutationJournal> journal;
+
+    private final Object lock = new Object();
+    private final ProjectionRebuilder<Mutation> rebuilder = new ProjectionRebuilder<>(lock);
+    private PortfolioState state = new PortfolioState();
+    private Instant lastReconciledAt;
+    private volatile PortfolioSummary summary;
+
+    public PortfolioAggregationService(AssetRepository assetRepository, EntityManager entityManager,
+                                       PlatformTransactionManager transactionManager,
+                                       ObjectProvider<AssetMutationJournal> journal) {
+        this.assetRepository = assetRepository;
+        this.entityManager = entityManager;
+        this.journal = journal;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public PortfolioSummary getSummary() {
+        PortfolioSummary current = summary;
+        if (current != null) {
+            return current;
+        }
+        synchronized (lock) {
+            if (summary == null) {
+                summary = state.toSummary(lastReconciledAt);
+            }
+            return summary;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetChange(AssetChangeEvent event) {
+        rebuilder.apply(Mutation.of(event), mutation -> {
+            state.apply(mutation);
+            summary = null;
+        });
+    }
+
+    // With the journal enabled the totals are replayed from it at startup rather than scanned from
+    // the table; the scheduled reconcile still compares against the table afterwards
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        AssetMutationJournal history = journal.getIfAvailable();
+        if (history == null || history.lastSequence() == 0) {
+            rebuild();
+            return;
+        }
+        long started = System.nanoTime();
+        if (rebuild(rebuilt -> history.replay(0, event -> rebuilt.apply(Mutation.of(event))))) {
+            log.info("Replayed portfolio aggregates from the asset journal in {} ms",
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    // Full reconcile guards against drift from writes that bypass the service layer
+    @Scheduled(fixedDelayString = "${app.assets.aggregates.reconcile-interval-ms:600000}",
+            initialDelayString = "${app.assets.aggregates.reconcile-interval-ms:600000}")
+    public void rebuild() {
+        rebuild(rebuilt -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Asset> assets = assetRepository.streamAllOrderById()) {
+                assets.forEach(asset -> {
+                    rebuilt.apply(new Mutation(asset.getId(), Contribution.of(asset)));
+                    entityManager.detach(asset);
+                });
+            }
+        }));
+    }
+
+    private boolean rebuild(Consumer<PortfolioState> loader) {
+        try {
+            // Mutations are keyed by id, so replaying ones the scan already saw is harmless
+            rebuilder.rebuild(() -> {
+                PortfolioState loaded = new PortfolioState();
+                loader.accept(loaded);
+                return loaded;
+            }, PortfolioState::apply, loaded -> {
+                state = loaded;
+                lastReconciledAt = Instant.now();
+                summary = null;
+            });
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Portfolio aggregate rebuild failed, keeping incremental totals", e);
+            return false;
+        }
+    }
+
+    private record Mutation(long assetId, Contribution contribution) {
+
+        static Mutation of(AssetChangeEvent event) {
+            return new Mutation(event.assetId(),
+                    event.type() == AssetChangeEvent.Type.DELETED ? null : Contribution.of(event.asset()));
+        }
+    }
+
+    private record Contribution(String type, double price, boolean stillOwned, Integer purchaseYear) {
+
+        static Contribution of(Asset asset) {
+            return new Contribution(
+                    asset.getType(),
+                    asset.getPrice() == null ? 0 : asset.getPrice(),
+                    asset.isStillOwned(),
+                    asset.getPurchaseDate() == null ? null : asset.getPurchaseDate().getYear());
+        }
+    }
+
+    private static final class Totals {
+        long count;
+        double totalPrice;
+
+        void add(double price, int sign) {
+            count += sign;
+            totalPrice += sign * price;
+        }
+
+        PortfolioSummary.Totals toSummary() {
+            return new PortfolioSummary.Totals(count, totalPrice);
+        }
+    }
+
+    private static final class PortfolioState {
+        private final Map<Long, Contribution> byAsset = new HashMap<>();
+        private final Map<String, Totals> byType = new HashMap<>();
+        private final Map<Integer, Totals> byYear = new HashMap<>();
+        private final Totals owned = new Totals();
+        private final Totals disposed = new Totals();
+
+        void apply(Mutation mutation) {
+            Contribution previous = mutation.contribution() == null
+                    ? byAsset.remove(mutation.assetId())
+                    : byAsset.put(mutation.assetId(), mutation.contribution());
+            if (previous != null) {
+                add(previous, -1);
+            }
+            if (mutation.contribution() != null) {
+                add(mutation.contribution(), 1);
+            }
+        }
+
+        private void add(Contribution contribution, int sign) {
+            (contribution.stillOwned() ? owned : disposed).add(contribution.price(), sign);
+            adjust(byType, contribution.type(), contribution.price(), sign);
+            adjust(byYear, contribution.purchaseYear(), contribution.price(), sign);
+        }
+
+        private <K> void adjust(Map<K, Totals> totals, K key, double price, int sign) {
+            if (key == null) {
+                return;
+            }
+            Totals entry = totals.computeIfAbsent(key, k -> new Totals());
+            entry.add(price, sign);
+            if (entry.count == 0) {
+                totals.remove(key);
+            }
+        }
+
+        PortfolioSummary toSummary(Instant lastReconciledAt) {
+            Map<String, PortfolioSummary.Totals> types = new TreeMap<>();
+            byType.forEach((type, totals) -> types.put(type, totals.toSummary()));
+            Map<Integer, PortfolioSummary.Totals> years = new TreeMap<>();
+            byYear.forEach((year, totals) -> years.put(year, totals.toSummary()));
+
+            return new PortfolioSummary(
+                    byAsset.size(),
+                    owned.count,
+                    disposed.count,
+                    owned.totalPrice,
+                    disposed.totalPrice,
+                    types,
+                    years,
+                    lastReconciledAt);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.nick.assetmanagementapp.service;
+
+import com.assetmanagement.common.projection.ProjectionRebuilder;
+import com.nick.assetmanagementapp.dto.PortfolioValuation;
+import com.nick.assetmanagementapp.event.AssetChangeEvent;
+import com.nick.assetmanagementapp.model.Asset;
+import com.nick.assetmanagementapp.repository.AssetRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Point-in-time portfolio values and holdings over date ranges, scanned from a columnar index that is
+// kept current per mutation and reconciled with the table on the aggregates schedule
+@Service
+public class PortfolioValuationService {
+
+    private static final Logger log = LoggerFactory.getLogger(PortfolioValuationService.class);
+
+    private static final long MAX_RANGE_YEARS = 100;
+
+    private final AssetRepository assetRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final double defaultDepreciation;
+    private final Map<String, Double> depreciationByType;
+    private final int maxPoints;
+    private final int scanThreads;
+    private final ExecutorService scanPool;
+
+    private final ProjectionRebuilder<AssetChangeEvent> rebuilder = new ProjectionRebuilder<>();
+    private volatile AssetValuationIndex index;
+
+    public PortfolioValuationService(AssetRepository assetRepository, PlatformTransactionManager transactionManager,
+                                     @Value("${app.assets.valuation.default-annual-depreciation:0.1}") double defaultDepreciation,
+                                     @Value("${app.assets.valuation.annual-depreciation:}") String depreciationByType,
+                                     @Value("${app.assets.valuation.max-points:10000}") int maxPoints,
+                                     @Value("${app.assets.valuation.scan-threads:0}") int scanThreads) {
+        this.assetRepository = assetRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.defaultDepreciation = checkRate(defaultDepreciation);
+        this.depreciationByType = parseRates(depreciationByType);
+        this.maxPoints = maxPoints;
+        // Valuations run scans on the caller's thread too, so the pool holds one thread fewer
+        this.scanThreads = scanThreads > 0 ? scanThreads : Runtime.getRuntime().availableProcessors();
+        this.scanPool = Executors.newFixedThreadPool(Math.max(1, this.scanThreads - 1), daemonThreads("portfolio-valuation"));
+        this.index = new AssetValuationIndex(scanPool, this.scanThreads);
+    }
+
+    // Without from, values the portfolio on the single date to, which defaults to today
+    public PortfolioValuation valuate(LocalDate from, LocalDate to, ValuationInterval interval,
+                                      Set<String> types, boolean includeSold) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end : from;
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.YEARS.between(start, end) >= MAX_RANGE_YEARS) {
+            throw new IllegalArgumentException("Range must be shorter than " + MAX_RANGE_YEARS + " years");
+        }
+        List<LocalDate> dates = interval.datesBetween(start, end, maxPoints);
+        return index.valuate(dates, types, includeSold,
+                type -> depreciationByType.getOrDefault(type, defaultDepreciation));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetChange(AssetChangeEvent event) {
+        rebuilder.apply(event, change -> apply(index, change));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scanPool.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${app.assets.aggregates.reconcile-interval-ms:600000}",
+            initialDelayString = "${app.assets.aggregates.reconcile-interval-ms:600000}")
+    public void rebuild() {
+        long started = System.nanoTime();
+        AssetValuationIndex rebuilt;
+        try {
+            // Events carry full rows, so replaying ones the scan already saw is harmless
+            rebuilt = rebuilder.rebuild(this::loadIndex, PortfolioValuationService::apply, loaded -> index = loaded);
+        } catch (RuntimeException e) {
+            log.warn("Valuation index rebuild failed, keeping incremental updates", e);
+            return;
+        }
+        log.info("Loaded {} assets into the valuation index in {} ms", rebuilt.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private AssetValuationIndex loadIndex() {
+        AssetValuationIndex loaded = new AssetValuationIndex(scanPool, scanThreads);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = assetRepository.streamValuationFields()) {
+                rows.forEach(row -> loaded.put((Long) row[0], (String) row[1], (Double) row[2],
+                        (LocalDate) row[4], (Boolean) row[3]));
+            }
+        });
+        return loaded;
+    }
+
+    private static void apply(AssetValuationIndex index, AssetChangeEvent event) {
+        if (event.type() == AssetChangeEvent.Type.DELETED) {
+            index.remove(event.assetId());
+        } else {
+            Asset asset = event.asset();
+            index.put(asset.getId(), asset.getType(), asset.getPrice(), asset.getPurchaseDate(), asset.isStillOwned());
+        }
+    }
+
+    // Electronics:0.3,Vehicle:0.15
+    private static Map<String, Double> parseRates(String value) {
+        Map<String, Double> rates = new HashMap<>();
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected type:rate in app.assets.valuation.annual-depreciation, got " + entry);
+            }
+            rates.put(entry.substring(0, separator).trim(), checkRate(Double.parseDouble(entry.substring(separator + 1).trim())));
+        }
+        return rates;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static double checkRate(double rate) {
+        if (rate < 0 || rate >= 1) {
+            throw new IllegalArgumentException("Annual depreciation must be at least 0 and below 1, got " + rate);
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,53 @@
+package com.nick.assetmanagementapp.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public enum ValuationInterval {
+
+    DAY,
+    WEEK,
+    MONTH,
+    QUARTER,
+    YEAR;
+
+    // Every interval step from the start date, plus the end date itself when it falls between steps
+    public List<LocalDate> datesBetween(LocalDate from, LocalDate to, int maxPoints) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (int step = 0; ; step++) {
+            LocalDate date = advance(from, step);
+            if (!date.isBefore(to)) {
+                dates.add(to);
+                return dates;
+            }
+            dates.add(date);
+            if (dates.size() >= maxPoints) {
+                throw new IllegalArgumentException("Range yields more than " + maxPoints + " valuation dates");
+            }
+        }
+    }
+
+    // Stepping from the start each time keeps month ends on month ends
+    private LocalDate advance(LocalDate from, int steps) {
+        return switch (this) {
+            case DAY -> from.plusDays(steps);
+            case WEEK -> from.plusWeeks(steps);
+            case MONTH -> from.plusMonths(steps);
+            case QUARTER -> from.plusMonths(3L * steps);
+            case YEAR -> from.plusYears(steps);
+        };
+    }
+
+    public static ValuationInterval fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return MONTH;
+        }
+        for (ValuationInterval interval : values()) {
+            if (interval.name().equalsIgnoreCase(value)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported interval: " + value);
+    }
+}
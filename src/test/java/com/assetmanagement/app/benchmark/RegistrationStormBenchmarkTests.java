@@ -0,0 +1,128 @@
+package com.assetmanagement.app.benchmark;
+
+import com.assetmanagement.common.benchmark.BenchmarkReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Run with: mvn test -Dgroups=benchmark -DexcludedGroups=none -Dbenchmark.registrations=300
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "app.user.directories.base-path=target/benchmarks/user-data"
+})
+class RegistrationStormBenchmarkTests {
+
+    @LocalServerPort
+    private int port;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @Test
+    void registrationStormKeepsHealthCheckResponsive() throws Exception {
+        int registrations = Integer.getInteger("benchmark.registrations", 300);
+        int concurrency = Integer.getInteger("benchmark.concurrency", 100);
+
+        List<Long> healthLatencies = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch stormOver = new CountDownLatch(1);
+        Thread prober = Thread.ofPlatform().daemon().start(() -> probeHealth(healthLatencies, stormOver));
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger registered = new AtomicInteger();
+        long started = System.nanoTime();
+        try (ExecutorService clients = Executors.newFixedThreadPool(concurrency)) {
+            for (int i = 0; i < concurrency; i++) {
+                clients.execute(() -> {
+                    for (int n = next.getAndIncrement(); n < registrations; n = next.getAndIncrement()) {
+                        if (register(n, rejected)) {
+                            registered.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        stormOver.countDown();
+        prober.join();
+
+        assertEquals(registrations, registered.get());
+        List<Long> sorted = new ArrayList<>(healthLatencies);
+        Collections.sort(sorted);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "registration-storm");
+        result.put("registrations", registrations);
+        result.put("concurrency", concurrency);
+        result.put("elapsedMillis", elapsedMillis);
+        result.put("registrationsPerSecond", BenchmarkReport.rounded(registrations * 1000.0 / Math.max(1, elapsedMillis)));
+        result.put("rejectedWith503", rejected.get());
+        result.put("healthSamples", sorted.size());
+        result.put("healthP50Micros", percentile(sorted, 0.50));
+        result.put("healthP99Micros", percentile(sorted, 0.99));
+        result.put("healthMaxMicros", sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1));
+        BenchmarkReport.write(objectMapper, "registration-storm", result);
+    }
+
+    // Retries on 503, honouring Retry-After, the way a well-behaved client would
+    private boolean register(int n, AtomicInteger rejected) {
+        String body = String.format("{\"username\":\"storm%d\",\"email\":\"storm%d@example.com\",\"password\":\"password%d\"}", n, n, n);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/register"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            while (true) {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 503) {
+                    return response.statusCode() == 200;
+                }
+                rejected.incrementAndGet();
+                long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                Thread.sleep(retryAfter * 1000);
+            }
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void probeHealth(List<Long> latencies, CountDownLatch stormOver) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/health")).build();
+        try {
+            while (!stormOver.await(20, TimeUnit.MILLISECONDS)) {
+                long start = System.nanoTime();
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+                latencies.add((System.nanoTime() - start) / 1_000);
+            }
+        } catch (Exception e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long percentile(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(percentile * sorted.size()) - 1));
+    }
+}
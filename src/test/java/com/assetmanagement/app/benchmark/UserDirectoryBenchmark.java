@@ -0,0 +1,116 @@
+package com.assetmanagement.app.benchmark;
+
+import com.assetmanagement.app.AssetManagementApplication;
+import com.assetmanagement.app.model.User;
+import com.assetmanagement.app.service.StorageLedgerService;
+import com.assetmanagement.app.service.UserDirectoryService;
+import com.assetmanagement.app.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Directory provisioning and size reporting; sizes are measured over synthetic trees and compared
+// with walking the tree, which is what size reporting cost before the storage ledger
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDirectoryBenchmark {
+
+    private static final int FILE_SIZE = 256;
+
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        Path baseDirectory;
+        ConfigurableApplicationContext context;
+        UserDirectoryService userDirectoryService;
+        UserService userService;
+        final AtomicLong nextUserId = new AtomicLong(1_000_000);
+
+        @Setup(Level.Trial)
+        public void start() throws IOException {
+            baseDirectory = Files.createTempDirectory("user-directory-benchmark");
+            context = new SpringApplicationBuilder(AssetManagementApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run(
+                            "--spring.jpa.show-sql=false",
+                            "--spring.datasource.url=jdbc:h2:mem:user-directory-benchmark",
+                            "--app.user.directories.base-path=" + baseDirectory);
+            userDirectoryService = context.getBean(UserDirectoryService.class);
+            userService = context.getBean(UserService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws IOException {
+            context.close();
+            FileSystemUtils.deleteRecursively(baseDirectory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DirectoryTree {
+
+        @Param({"1000", "100000"})
+        public int files;
+
+        User user;
+        Path userDirectory;
+
+        @Setup(Level.Trial)
+        public void populate(Application application) throws Exception {
+            user = application.userService.registerUser("tree_" + files, "tree" + files + "@example.com", "unused");
+            userDirectory = application.userDirectoryService.ensureUserDirectory(user);
+            byte[] content = new byte[FILE_SIZE];
+            for (int i = 0; i < files; i++) {
+                // Spread files over nested folders so the walk visits a realistic number of directories
+                Path folder = userDirectory.resolve("documents").resolve("batch-" + i / 1000);
+                if (i % 1000 == 0) {
+                    Files.createDirectories(folder);
+                }
+                Files.write(folder.resolve("file-" + i + ".bin"), content);
+            }
+
+            // Files written behind the app's back reach the ledger through a rescan
+            application.context.getBean(StorageLedgerService.class).scheduleRescan(user);
+            long expected = (long) files * FILE_SIZE;
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+            while (application.userDirectoryService.getUserDirectorySize(user) < expected) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Storage ledger did not pick up the synthetic tree");
+                }
+                Thread.sleep(50);
+            }
+        }
+    }
+
+    @Benchmark
+    public Path createUserDirectory(Application application) throws IOException {
+        User user = new User();
+        user.setId(application.nextUserId.incrementAndGet());
+        user.setUsername("bench");
+        return application.userDirectoryService.ensureUserDirectory(user);
+    }
+
+    @Benchmark
+    public long getUserDirectorySize(Application application, DirectoryTree tree) {
+        return application.userDirectoryService.getUserDirectorySize(tree.user);
+    }
+
+    @Benchmark
+    public long walkUserDirectory(DirectoryTree tree) throws IOException {
+        try (Stream<Path> paths = Files.walk(tree.userDirectory)) {
+            return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.assetmanagement.app.benchmark;
+
+import com.assetmanagement.app.AssetManagementApplication;
+import com.assetmanagement.app.model.User;
+import com.assetmanagement.app.service.AuthenticationService;
+import com.assetmanagement.app.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Registration end to end (bcrypt on the hashing pool, then the insert) next to the insert alone
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserRegistrationBenchmark {
+
+    private final AtomicLong nextUser = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private AuthenticationService authenticationService;
+    private UserService userService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(AssetManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false", "--spring.datasource.url=jdbc:h2:mem:registration-benchmark");
+        authenticationService = context.getBean(AuthenticationService.class);
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public User registerUser() {
+        long n = nextUser.incrementAndGet();
+        return authenticationService.register("bench_" + n, "bench" + n + "@example.com", "correct horse battery").join();
+    }
+
+    @Benchmark
+    public User registerUserWithoutHashing() {
+        long n = nextUser.incrementAndGet();
+        return userService.registerUser("plain_" + n, "plain" + n + "@example.com", "$2a$10$precomputed");
+    }
+}
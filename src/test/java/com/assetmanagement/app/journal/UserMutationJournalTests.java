@@ -0,0 +1,63 @@
+package com.assetmanagement.app.journal;
+
+import com.assetmanagement.app.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserMutationJournalTests {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysTheLatestStateOfEachUserAcrossRestarts() throws Exception {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000);
+        UserMutationJournal journal = new UserMutationJournal(directory.toString(), SEGMENT_BYTES, true);
+        try {
+            journal.recordSaved(user(1L, "alice", createdAt));
+            journal.recordSaved(user(2L, "bob", createdAt));
+            journal.recordSaved(user(1L, "alice2", createdAt));
+            journal.recordDeleted(user(2L, "bob", createdAt));
+        } finally {
+            journal.close();
+        }
+
+        UserMutationJournal reopened = new UserMutationJournal(directory.toString(), SEGMENT_BYTES, true);
+        try {
+            Map<Long, UserMutationJournal.UserMutation> users = new HashMap<>();
+            long last = reopened.replay(0, mutation -> {
+                if (mutation.deleted()) {
+                    users.remove(mutation.userId());
+                } else {
+                    users.put(mutation.userId(), mutation);
+                }
+            });
+            assertEquals(4, last);
+            assertEquals(1, users.size());
+            assertEquals("alice2", users.get(1L).username());
+            assertEquals("alice2@example.com", users.get(1L).email());
+            assertEquals(createdAt, users.get(1L).createdAt());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private static User user(Long id, String username, LocalDateTime createdAt) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("hash");
+        user.setCreatedAt(createdAt);
+        return user;
+    }
+}
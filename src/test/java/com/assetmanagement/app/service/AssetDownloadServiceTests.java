@@ -0,0 +1,63 @@
+package com.assetmanagement.app.service;
+
+import com.assetmanagement.app.model.Asset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssetDownloadServiceTests {
+
+    @TempDir
+    private Path directory;
+
+    private final AssetDownloadService downloadService = new AssetDownloadService();
+
+    @Test
+    void servesTheWholeFileWhenIfRangeCannotBeCompared() throws Exception {
+        Asset asset = asset("0123456789");
+
+        for (String ifRange : new String[] {"W/\"weak\"", "not a date"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/download");
+            request.addHeader(HttpHeaders.RANGE, "bytes=2-4");
+            request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            downloadService.serve(asset, request, response);
+
+            assertEquals(200, response.getStatus(), ifRange);
+            assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+            assertEquals("0123456789", response.getContentAsString());
+        }
+    }
+
+    @Test
+    void servesTheRequestedRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/download");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-4");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        downloadService.serve(asset("0123456789"), request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-4/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("234", response.getContentAsString());
+    }
+
+    private Asset asset(String content) throws Exception {
+        Path file = Files.writeString(directory.resolve("asset.txt"), content);
+        Asset asset = new Asset();
+        asset.setId(1L);
+        asset.setFilePath(file.toString());
+        asset.setFileType("text/plain");
+        asset.setUpdatedAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+        return asset;
+    }
+}
@@ -0,0 +1,111 @@
+package com.assetmanagement.app.service;
+
+import com.assetmanagement.app.dto.AssetListPage;
+import com.assetmanagement.app.dto.AssetSummary;
+import com.assetmanagement.app.model.Asset;
+import com.assetmanagement.app.model.User;
+import com.assetmanagement.app.repository.AssetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:asset-query-tests",
+        "app.user.directories.base-path=target/asset-query-tests"
+})
+class AssetQueryServiceTests {
+
+    private static final AssetQueryService.Filter NO_FILTER = new AssetQueryService.Filter(null, null, null, null);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private AssetQueryService assetQueryService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = register();
+        User other = register();
+        List<Asset> assets = new ArrayList<>();
+        for (int i = 0; i < 57; i++) {
+            assets.add(asset(user, "file-" + (i * 7 % 57), i % 3 == 0 ? "application/pdf" : "image/png"));
+        }
+        for (int i = 0; i < 5; i++) {
+            assets.add(asset(other, "other-" + i, "application/pdf"));
+        }
+        assetRepository.saveAll(assets);
+    }
+
+    @Test
+    void pagesThroughEachSortWithoutGapsOrDuplicates() {
+        List<AssetSummary> newest = listAll(AssetListSort.CREATED_AT, NO_FILTER);
+        List<AssetSummary> byName = listAll(AssetListSort.NAME, NO_FILTER);
+        List<AssetSummary> pdfs = listAll(AssetListSort.CREATED_AT,
+                new AssetQueryService.Filter("application/pdf", null, null, null));
+        List<AssetSummary> prefixed = listAll(AssetListSort.NAME, new AssetQueryService.Filter(null, null, null, "file-1"));
+
+        assertEquals(57, newest.stream().map(AssetSummary::id).distinct().count());
+        assertEquals(newest.stream().sorted(Comparator.comparing(AssetSummary::createdAt)
+                .thenComparing(AssetSummary::id).reversed()).toList(), newest);
+        assertEquals(byName.stream().sorted(Comparator.comparing(AssetSummary::name)).toList(), byName);
+        assertEquals(57, byName.size());
+        assertEquals(19, pdfs.size());
+        assertEquals(11, prefixed.size());
+    }
+
+    @Test
+    void servesEveryListingFromAnIndex() {
+        String newest = assetQueryService.explain(user.getId(), AssetListSort.CREATED_AT, NO_FILTER, null, 10);
+
+        assertTrue(newest.contains("IDX_ASSETS_USER_CREATED_AT"));
+        assertTrue(newest.contains("index sorted"));
+        assertTrue(assetQueryService.explain(user.getId(), AssetListSort.CREATED_AT,
+                new AssetQueryService.Filter("image/png", null, null, null), null, 10)
+                .contains("IDX_ASSETS_USER_FILE_TYPE_CREATED_AT"));
+        assertTrue(assetQueryService.explain(user.getId(), AssetListSort.NAME,
+                new AssetQueryService.Filter(null, null, null, "file"), null, 10)
+                .contains("IDX_ASSETS_USER_NAME"));
+        assertThrows(IllegalArgumentException.class, () -> assetQueryService.list(user.getId(), AssetListSort.NAME,
+                new AssetQueryService.Filter("image/png", null, null, null), null, 10));
+    }
+
+    private List<AssetSummary> listAll(AssetListSort sort, AssetQueryService.Filter filter) {
+        List<AssetSummary> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            AssetListPage page = assetQueryService.list(user.getId(), sort, filter, cursor, 10);
+            all.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return all;
+    }
+
+    private User register() {
+        String name = "lister-" + UUID.randomUUID().toString().substring(0, 8);
+        return userService.registerUser(name, name + "@example.com", "hash");
+    }
+
+    private Asset asset(User owner, String name, String fileType) {
+        Asset asset = new Asset();
+        asset.setName(name);
+        asset.setDescription("");
+        asset.setFileType(fileType);
+        asset.setFileSize(1024L);
+        asset.setUser(owner);
+        return asset;
+    }
+}
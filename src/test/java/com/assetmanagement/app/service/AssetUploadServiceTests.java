@@ -0,0 +1,143 @@
+package com.assetmanagement.app.service;
+
+import com.assetmanagement.app.dto.UploadInitRequest;
+import com.assetmanagement.app.dto.UploadStatus;
+import com.assetmanagement.app.exception.StorageQuotaExceededException;
+import com.assetmanagement.app.model.Asset;
+import com.assetmanagement.app.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:asset-upload-tests",
+        "app.user.directories.base-path=target/asset-upload-tests",
+        "app.user.storage.quota-bytes=1000"
+})
+class AssetUploadServiceTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AssetUploadService assetUploadService;
+
+    @Autowired
+    private StorageLedgerService storageLedgerService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String name = "uploader-" + UUID.randomUUID().toString().substring(0, 8);
+        user = userService.registerUser(name, name + "@example.com", "hash");
+    }
+
+    @Test
+    void givesConcurrentUploadsOfOneNameTheirOwnFiles() throws Exception {
+        List<String> uploadIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            uploadIds.add(upload("report.pdf", "version " + i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Asset>> completions = new ArrayList<>();
+        try {
+            for (String uploadId : uploadIds) {
+                completions.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return assetUploadService.completeUpload(user, uploadId);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, executor));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        HashSet<String> contents = new HashSet<>();
+        HashSet<String> paths = new HashSet<>();
+        for (CompletableFuture<Asset> completion : completions) {
+            Path file = Paths.get(completion.join().getFilePath());
+            paths.add(file.toString());
+            contents.add(Files.readString(file));
+        }
+        assertEquals(8, paths.size());
+        assertEquals(8, contents.size());
+    }
+
+    @Test
+    void keepsARejectedUploadAbortable() throws Exception {
+        String uploadId = upload("photo.png", "x".repeat(600));
+        storageLedgerService.recordWrite(user, "images", 600);
+
+        assertThrows(StorageQuotaExceededException.class, () -> assetUploadService.completeUpload(user, uploadId));
+        assertEquals(1, assetUploadService.getStatus(user, uploadId).chunksReceived());
+
+        Path tempFile = Paths.get(user.getUserDirectory()).resolve("temp").resolve(uploadId + ".part");
+        assertTrue(Files.exists(tempFile));
+        assetUploadService.abortUpload(user, uploadId);
+        assertFalse(Files.exists(tempFile));
+    }
+
+    @Test
+    void rejectsRewritingAReceivedChunk() throws Exception {
+        String uploadId = upload("notes.txt", "original");
+
+        assertThrows(IllegalStateException.class, () -> assetUploadService.writeChunk(user, uploadId, 0,
+                new ByteArrayInputStream("tampered".getBytes(StandardCharsets.UTF_8))));
+
+        Asset asset = assetUploadService.completeUpload(user, uploadId);
+        assertEquals("original", Files.readString(Paths.get(asset.getFilePath())));
+    }
+
+    @Test
+    void sweepsPartFilesLeftWithoutASession() throws Exception {
+        String uploadId = upload("draft.txt", "in progress");
+        Path tempDirectory = Paths.get(user.getUserDirectory()).resolve("temp");
+        Path live = tempDirectory.resolve(uploadId + ".part");
+        // As left behind by a session that died with the previous process
+        Path orphaned = Files.writeString(tempDirectory.resolve(UUID.randomUUID() + ".part"), "stale");
+        Path recent = Files.writeString(tempDirectory.resolve(UUID.randomUUID() + ".part"), "recent");
+        FileTime old = FileTime.fromMillis(System.currentTimeMillis() - Duration.ofDays(2).toMillis());
+        Files.setLastModifiedTime(orphaned, old);
+        Files.setLastModifiedTime(live, old);
+
+        assetUploadService.expireAbandonedUploads();
+
+        assertFalse(Files.exists(orphaned));
+        assertTrue(Files.exists(recent));
+        assertTrue(Files.exists(live));
+    }
+
+    private String upload(String fileName, String content) throws Exception {
+        byte[] body = content.getBytes(StandardCharsets.UTF_8);
+        UploadInitRequest request = new UploadInitRequest();
+        request.setFileName(fileName);
+        request.setFileSize((long) body.length);
+        request.setName(fileName);
+        request.setDescription("");
+        UploadStatus status = assetUploadService.startUpload(user, request);
+        assetUploadService.writeChunk(user, status.uploadId(), 0, new ByteArrayInputStream(body));
+        return status.uploadId();
+    }
+}
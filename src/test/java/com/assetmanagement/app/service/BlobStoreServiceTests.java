@@ -0,0 +1,92 @@
+package com.assetmanagement.app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlobStoreServiceTests {
+
+    @TempDir
+    private Path baseDirectory;
+
+    private BlobStoreService blobStoreService;
+
+    @BeforeEach
+    void setUp() {
+        blobStoreService = new BlobStoreService();
+        ReflectionTestUtils.setField(blobStoreService, "baseDirectory", baseDirectory.toString());
+        ReflectionTestUtils.setField(blobStoreService, "enabled", true);
+        ReflectionTestUtils.setField(blobStoreService, "gcGraceMillis", 0L);
+    }
+
+    @Test
+    void storesEachBodyOnceAndFreesItWhenUnreferenced() throws Exception {
+        String sha256 = hash("quarterly report");
+        Path first = upload("first.part", "quarterly report");
+        Path second = upload("second.part", "quarterly report");
+
+        assertTrue(blobStoreService.storeAndLink(first, sha256, baseDirectory.resolve("a.pdf")));
+        assertTrue(blobStoreService.storeAndLink(second, sha256, baseDirectory.resolve("b.pdf")));
+
+        Path blob = blobPath(sha256);
+        assertFalse(Files.exists(first));
+        assertFalse(Files.exists(second));
+        assertEquals(2, blobStoreService.referenceCount(blob));
+        assertEquals("quarterly report", Files.readString(baseDirectory.resolve("b.pdf")));
+
+        Files.delete(baseDirectory.resolve("a.pdf"));
+        Files.delete(baseDirectory.resolve("b.pdf"));
+        Thread.sleep(5);
+        blobStoreService.sweepUnreferencedBlobs();
+        assertFalse(blobStoreService.contains(sha256));
+    }
+
+    @Test
+    void keepsTheUploadWhenTheStoredCopyCannotBeLinked() throws Exception {
+        String sha256 = hash("holiday photos");
+        Path file = upload("photos.part", "holiday photos");
+        // Something at the blob path that cannot be hard-linked, as when a sweep races the link
+        Files.createDirectories(blobPath(sha256));
+
+        assertFalse(blobStoreService.storeAndLink(file, sha256, baseDirectory.resolve("photos.zip")));
+
+        assertEquals("holiday photos", Files.readString(file));
+        assertFalse(Files.exists(baseDirectory.resolve("photos.zip")));
+    }
+
+    @Test
+    void doesNotLinkAStoredCopyWithOtherContent() throws Exception {
+        String sha256 = hash("invoice");
+        Files.createDirectories(blobPath(sha256).getParent());
+        Files.writeString(blobPath(sha256), "INVOICE");
+        Path file = upload("invoice.part", "invoice");
+
+        assertFalse(blobStoreService.storeAndLink(file, sha256, baseDirectory.resolve("invoice.pdf")));
+
+        assertEquals("invoice", Files.readString(file));
+        assertFalse(Files.exists(baseDirectory.resolve("invoice.pdf")));
+    }
+
+    private Path upload(String name, String content) throws Exception {
+        return Files.writeString(baseDirectory.resolve(name), content);
+    }
+
+    private Path blobPath(String sha256) {
+        return baseDirectory.resolve(BlobStoreService.BLOB_DIRECTORY)
+                .resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    private String hash(String content) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest);
+    }
+}
@@ -0,0 +1,71 @@
+package com.assetmanagement.app.service;
+
+import com.assetmanagement.app.exception.StorageQuotaExceededException;
+import com.assetmanagement.app.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:storage-ledger-tests",
+        "app.user.directories.base-path=target/storage-ledger-tests",
+        "app.user.storage.quota-bytes=100000"
+})
+class StorageLedgerServiceTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private StorageLedgerService storageLedgerService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String name = "ledger-" + UUID.randomUUID().toString().substring(0, 8);
+        user = userService.registerUser(name, name + "@example.com", "hash");
+    }
+
+    @Test
+    void keepsEveryWriteWhenTheLedgerIsLoadedConcurrently() {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                writes.add(CompletableFuture.runAsync(
+                        () -> storageLedgerService.recordWrite(user, "documents", 100), executor));
+            }
+            writes.forEach(CompletableFuture::join);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(40_000, storageLedgerService.getTotalBytes(user));
+        assertEquals(400, storageLedgerService.getUsage(user).getSubdirectories().get("documents").files());
+    }
+
+    @Test
+    void reloadsPersistedUsageAndEnforcesTheQuota() {
+        storageLedgerService.recordWrite(user, "documents", 60_000);
+        storageLedgerService.recordWrite(user, "images", 30_000);
+        storageLedgerService.recordDelete(user, "images", 10_000);
+        storageLedgerService.flush();
+        storageLedgerService.forget(user);
+
+        assertEquals(80_000, storageLedgerService.getTotalBytes(user));
+        assertEquals(1, storageLedgerService.getUsage(user).getSubdirectories().get("documents").files());
+        storageLedgerService.checkQuota(user, 20_000);
+        assertThrows(StorageQuotaExceededException.class, () -> storageLedgerService.checkQuota(user, 20_001));
+    }
+}
@@ -0,0 +1,72 @@
+package com.assetmanagement.app.service;
+
+import com.assetmanagement.app.dto.AssetSearchHit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTests {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.put(1, "Quarterly Report", "Finance summary for Q3");
+        index.put(2, "Holiday photos", "Beach and mountains");
+        index.put(3, "report-draft.pdf", "Unfinished quarterly figures");
+        index.put(4, "Invoice", "Annual report attachment");
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        List<Long> ids = ids(index.search("report", 10));
+
+        assertEquals(List.of(3L, 1L, 4L), ids);
+    }
+
+    @Test
+    void matchesWordPrefixesForShortQueries() {
+        assertEquals(List.of(2L), ids(index.search("ho", 10)));
+        assertEquals(List.of(2L), ids(index.search("b", 10)));
+    }
+
+    @Test
+    void toleratesTypos() {
+        List<AssetSearchHit> hits = index.search("quartrly", 10);
+
+        assertEquals(List.of(1L, 3L), ids(hits));
+        assertEquals("fuzzy", hits.get(0).match());
+    }
+
+    @Test
+    void reflectsUpdatesAndDeletes() {
+        index.put(2, "Vacation album", "Beach");
+        index.remove(1);
+
+        assertTrue(index.search("holiday", 10).isEmpty());
+        assertEquals(List.of(2L), ids(index.search("vacation", 10)));
+        assertEquals(List.of(3L), ids(index.search("quarterly", 10)));
+    }
+
+    @Test
+    void keepsPostingsConsistentAfterCompaction() {
+        for (long id = 100; id < 400; id++) {
+            index.put(id, "Scan " + id, "");
+        }
+        for (long id = 100; id < 390; id++) {
+            index.remove(id);
+        }
+
+        assertEquals(14, index.size());
+        assertEquals(10, index.search("scan", 50).size());
+        assertEquals(List.of(395L), ids(index.search("scan 395", 5)).subList(0, 1));
+    }
+
+    private List<Long> ids(List<AssetSearchHit> hits) {
+        return hits.stream().map(AssetSearchHit::assetId).toList();
+    }
+}
@@ -0,0 +1,132 @@
+package com.assetmanagement.app.service;
+
+import com.assetmanagement.app.dto.ReclaimJobStatus;
+import com.assetmanagement.app.exception.UserDirectoryDeletionException;
+import com.assetmanagement.app.model.Asset;
+import com.assetmanagement.app.model.User;
+import com.assetmanagement.app.repository.AssetRepository;
+import com.assetmanagement.app.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-service-tests",
+        "app.user.directories.base-path=target/user-service-tests"
+})
+class UserServiceTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserDirectoryService userDirectoryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private AssetSearchService assetSearchService;
+
+    @Autowired
+    private DirectoryReclaimService directoryReclaimService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void keepsTheUserAndItsSearchIndexWhenItsDirectoryCannotBeTrashed() throws Exception {
+        String name = "leaver-" + UUID.randomUUID().toString().substring(0, 8);
+        User user = userService.registerUser(name, name + "@example.com", "hash");
+        Path userPath = userDirectoryService.ensureUserDirectory(user);
+        Asset asset = new Asset();
+        asset.setName("Quarterly report");
+        asset.setDescription("");
+        asset.setUser(user);
+        assetSearchService.index(assetRepository.save(asset));
+
+        // A file where the trash directory belongs makes the move fail
+        Path trash = Paths.get("target/user-service-tests").resolve(DirectoryReclaimService.TRASH_DIRECTORY);
+        Files.deleteIfExists(trash);
+        Files.createFile(trash);
+        try {
+            assertThrows(UserDirectoryDeletionException.class, () -> userService.deleteUser(user.getId()));
+            assertTrue(userRepository.existsById(user.getId()));
+            assertTrue(Files.isDirectory(userPath));
+            assertEquals(1, assetSearchService.search(user, "quarterly", 10).size());
+        } finally {
+            Files.delete(trash);
+        }
+
+        assertTrue(userService.deleteUser(user.getId()));
+        assertFalse(userRepository.existsById(user.getId()));
+        assertFalse(Files.exists(userPath));
+        assertTrue(assetSearchService.search(user, "quarterly", 10).isEmpty());
+    }
+
+    @Test
+    void keepsATombstoneUntilTheDirectoryIsReclaimed() throws Exception {
+        String name = "tombstone-" + UUID.randomUUID().toString().substring(0, 8);
+        User user = userService.registerUser(name, name + "@example.com", "hash");
+        Path userPath = userDirectoryService.ensureUserDirectory(user);
+        long ownBytes;
+        try (Stream<Path> files = Files.walk(userPath)) {
+            ownBytes = files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+        // A second link to a file, as the blob store keeps for deduplicated uploads
+        Path shared = Files.writeString(userPath.resolve("documents").resolve("shared.txt"), "shared bytes");
+        Path blob = Paths.get("target/user-service-tests").resolve(name + ".blob");
+        Files.createLink(blob, shared);
+
+        // The directory is only reclaimed after commit, so inside the transaction the row is still there
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(userService.deleteUser(user.getId()));
+            userRepository.flush();
+            assertNotNull(jdbcTemplate.queryForObject("select deleted_at from users where id = ?",
+                    LocalDateTime.class, user.getId()));
+        });
+        assertTrue(userService.findByUsername(name).isEmpty());
+
+        ReclaimJobStatus job = awaitReclaim(userPath);
+        assertEquals("COMPLETED", job.state());
+        assertFalse(Files.exists(userPath));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from users where id = ?", Integer.class, user.getId()));
+        // The file the blob still links to frees nothing
+        assertEquals(ownBytes, job.bytesReclaimed());
+        assertEquals("shared bytes", Files.readString(blob));
+        Files.delete(blob);
+    }
+
+    private ReclaimJobStatus awaitReclaim(Path directory) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            Optional<ReclaimJobStatus> job = directoryReclaimService.getJobs().stream()
+                    .filter(status -> status.id().startsWith(directory.getFileName() + "_") && status.finishedAt() != null)
+                    .findFirst();
+            if (job.isPresent()) {
+                return job.get();
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError(directory + " was not reclaimed");
+    }
+}
@@ -0,0 +1,31 @@
+package com.assetmanagement.common.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Writes a benchmark's results as target/benchmarks/<name>.json and echoes them to stdout.
+// Jackson writes numbers the same way in every locale, so reports stay valid JSON.
+public final class BenchmarkReport {
+
+    private static final Path DIRECTORY = Path.of("target", "benchmarks");
+
+    private BenchmarkReport() {
+    }
+
+    public static Path write(ObjectMapper objectMapper, String name, Object report) throws IOException {
+        String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+        System.out.println(json);
+        Path output = DIRECTORY.resolve(name + ".json");
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, json);
+        return output;
+    }
+
+    // One decimal place is as much precision as a rate measured in one run carries
+    public static double rounded(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -0,0 +1,218 @@
+package com.assetmanagement.common.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MutationJournalTests {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysAcrossSegmentsAndRestarts() throws IOException {
+        try (MutationJournal journal = MutationJournal.open(directory, SEGMENT_BYTES)) {
+            for (int i = 1; i <= 500; i++) {
+                journal.append(i, (byte) 1, payload("asset-" + i));
+            }
+        }
+        assertTrue(segmentCount() > 1);
+
+        try (MutationJournal journal = MutationJournal.open(directory, SEGMENT_BYTES)) {
+            assertEquals(500, journal.lastSequence());
+            assertEquals(501, journal.append(501, (byte) 1, payload("asset-501")));
+
+            List<Long> keys = new ArrayList<>();
+            long last = journal.replay(450, (sequence, key, type, payload) -> {
+                assertEquals("asset-" + key, text(payload));
+                keys.add(key);
+            });
+            assertEquals(501, last);
+            assertEquals(51, keys.size());
+            assertEquals(451L, keys.get(0));
+        }
+    }
+
+    @Test
+    void discardsATornRecordAtTheTail() throws IOException {
+        try (MutationJournal journal = MutationJournal.open(directory, SEGMENT_BYTES)) {
+            for (int i = 1; i <= 10; i++) {
+                journal.append(i, (byte) 1, payload("asset-" + i));
+            }
+        }
+        // Damage the last byte of the last record, as an interrupted write would
+        Path segment = lastSegment();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            int offset = 0;
+            int last = 0;
+            while (true) {
+                file.seek(offset);
+                int length = file.readInt();
+                if (length == 0) {
+                    break;
+                }
+                last = offset + 8 + length - 1;
+                offset += 8 + length;
+            }
+            file.seek(last);
+            file.write('#');
+        }
+
+        try (MutationJournal journal = MutationJournal.open(directory, SEGMENT_BYTES)) {
+            assertEquals(9, journal.lastSequence());
+            assertEquals(10, journal.append(10, (byte) 1, payload("asset-10")));
+            assertEquals(10, journal.replay(0, (sequence, key, type, payload) -> {
+            }));
+        }
+    }
+
+    @Test
+    void compactsSealedSegmentsToTheLatestRecordPerKey() throws IOException {
+        try (MutationJournal journal = MutationJournal.open(directory, SEGMENT_BYTES)) {
+            for (int round = 0; round < 20; round++) {
+                for (int key = 1; key <= 20; key++) {
+                    journal.append(key, (byte) 1, payload("v" + round));
+                }
+            }
+            for (int key = 1; key <= 5; key++) {
+                journal.append(key, MutationJournal.TOMBSTONE, new byte[0]);
+            }
+            int before = segmentCount();
+            assertTrue(journal.compact() > 0);
+            assertTrue(segmentCount() < before);
+            assertEquals(expectedAfterCompaction(), latestByKey(journal));
+        }
+
+        try (MutationJournal journal = MutationJournal.open(directory, SEGMENT_BYTES)) {
+            assertEquals(405, journal.lastSequence());
+            assertEquals(expectedAfterCompaction(), latestByKey(journal));
+        }
+    }
+
+    @Test
+    void redoesACompactionInterruptedAfterItsRenames() throws IOException {
+        List<String> inputs;
+        List<String> outputs;
+        try (MutationJournal journal = MutationJournal.open(directory, SEGMENT_BYTES)) {
+            // Key 0 is never superseded, so the first output takes the first input's name
+            journal.append(0, (byte) 1, payload("v0"));
+            for (int round = 0; round < 20; round++) {
+                for (int key = 1; key <= 20; key++) {
+                    journal.append(key, (byte) 1, payload("v" + round));
+                }
+            }
+            inputs = sealedSegmentNames();
+            assertTrue(journal.compact() > 0);
+            outputs = sealedSegmentNames();
+        }
+        assertEquals(inputs.get(0), outputs.get(0));
+
+        // The state a crash leaves after the renames but before the commit file is deleted
+        List<String> commit = new ArrayList<>();
+        inputs.forEach(name -> commit.add("delete " + name));
+        outputs.forEach(name -> commit.add("rename " + name + ".compacting " + name));
+        Files.write(directory.resolve("compaction.commit"), commit, StandardCharsets.UTF_8);
+
+        try (MutationJournal journal = MutationJournal.open(directory, SEGMENT_BYTES)) {
+            assertFalse(Files.exists(directory.resolve("compaction.commit")));
+            assertEquals(outputs, sealedSegmentNames());
+            Map<Long, String> expected = new HashMap<>();
+            expected.put(0L, "v0");
+            for (long key = 1; key <= 20; key++) {
+                expected.put(key, "v19");
+            }
+            assertEquals(expected, latestByKey(journal));
+        }
+    }
+
+    @Test
+    void sharesForcesBetweenConcurrentWriters() throws Exception {
+        Set<Long> sequences = ConcurrentHashMap.newKeySet();
+        try (MutationJournal journal = MutationJournal.open(directory, 1 << 20)) {
+            ExecutorService writers = Executors.newFixedThreadPool(8);
+            for (int i = 0; i < 2000; i++) {
+                long key = i;
+                writers.execute(() -> {
+                    long sequence = journal.append(key, (byte) 1, payload("asset-" + key));
+                    journal.awaitDurable(sequence);
+                    sequences.add(sequence);
+                });
+            }
+            writers.shutdown();
+            assertTrue(writers.awaitTermination(30, TimeUnit.SECONDS));
+            assertEquals(2000, journal.lastSequence());
+        }
+        assertEquals(2000, sequences.size());
+    }
+
+    private Map<Long, String> expectedAfterCompaction() {
+        Map<Long, String> expected = new HashMap<>();
+        for (long key = 6; key <= 20; key++) {
+            expected.put(key, "v19");
+        }
+        return expected;
+    }
+
+    private Map<Long, String> latestByKey(MutationJournal journal) {
+        Map<Long, String> latest = new HashMap<>();
+        journal.replay(0, (sequence, key, type, payload) -> {
+            if (type == MutationJournal.TOMBSTONE) {
+                latest.remove(key);
+            } else {
+                latest.put(key, text(payload));
+            }
+        });
+        return latest;
+    }
+
+    private int segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return (int) files.filter(path -> path.toString().endsWith(".log")).count();
+        }
+    }
+
+    // Every segment but the last, which is the active one
+    private List<String> sealedSegmentNames() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<String> names = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".log")).sorted().toList();
+            return names.subList(0, names.size() - 1);
+        }
+    }
+
+    private Path lastSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".log")).sorted().reduce((a, b) -> b).orElseThrow();
+        }
+    }
+
+    private static byte[] payload(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,47 @@
+package com.assetmanagement.common.projection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectionRebuilderTests {
+
+    private final ProjectionRebuilder<String> rebuilder = new ProjectionRebuilder<>();
+    private final AtomicReference<List<String>> live = new AtomicReference<>(new ArrayList<>());
+
+    @Test
+    void replaysMutationsThatArriveDuringTheLoad() {
+        rebuilder.apply("before", mutation -> live.get().add(mutation));
+
+        List<String> rebuilt = rebuilder.rebuild(() -> {
+            List<String> loaded = new ArrayList<>(List.of("loaded"));
+            // Arrives after the load read its source, so only the replay can carry it over
+            rebuilder.apply("during", mutation -> live.get().add(mutation));
+            return loaded;
+        }, List::add, live::set);
+
+        assertSame(rebuilt, live.get());
+        assertEquals(List.of("loaded", "during"), live.get());
+    }
+
+    @Test
+    void keepsTheLiveProjectionWhenTheLoadFails() {
+        List<String> original = live.get();
+
+        assertThrows(IllegalStateException.class, () -> rebuilder.rebuild(() -> {
+            rebuilder.apply("during", mutation -> live.get().add(mutation));
+            throw new IllegalStateException("scan failed");
+        }, List::add, live::set));
+        assertSame(original, live.get());
+        assertEquals(List.of("during"), original);
+
+        // The failed rebuild no longer collects mutations, so the next one starts clean
+        rebuilder.apply("after", mutation -> live.get().add(mutation));
+        rebuilder.rebuild(ArrayList::new, List::add, live::set);
+        assertEquals(List.of(), live.get());
+    }
+}
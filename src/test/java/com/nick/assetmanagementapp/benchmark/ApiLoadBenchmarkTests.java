@@ -0,0 +1,199 @@
+package com.nick.assetmanagementapp.benchmark;
+
+import com.assetmanagement.app.AssetManagementApplication;
+import com.assetmanagement.common.benchmark.BenchmarkReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nick.assetmanagementapp.AssetManagementAppApplication;
+import com.nick.assetmanagementapp.benchmark.OpenLoopLoadGenerator.EndpointResult;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// End-to-end open-loop load against both applications on random ports with H2. Every knob is a system property:
+//   -Dload.duration-seconds=30 -Dload.warmup-seconds=5
+//   -Dload.rate.<endpoint>=<requests per second>      (0 disables the endpoint)
+//   -Dload.slo.p99-ms=500 -Dload.slo.error-rate=0.01  (defaults for every endpoint)
+//   -Dload.slo.<endpoint>.p99-ms=<ms>                 (per-endpoint override)
+// The report is written to target/benchmarks/api-load.json with stable key order so runs can be diffed.
+// Run with: mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=ApiLoadBenchmarkTests
+@Tag("benchmark")
+class ApiLoadBenchmarkTests {
+
+    private static final Map<String, Double> DEFAULT_RATES = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_RATES.put("assets.list", 5.0);
+        DEFAULT_RATES.put("assets.get", 20.0);
+        DEFAULT_RATES.put("assets.create", 5.0);
+        DEFAULT_RATES.put("assets.update", 5.0);
+        DEFAULT_RATES.put("assets.delete", 2.0);
+        DEFAULT_RATES.put("users.register", 1.0);
+        DEFAULT_RATES.put("users.get", 10.0);
+    }
+
+    // Registration includes a bcrypt hash, so it gets a wider budget than the default p99
+    private static final Map<String, Double> DEFAULT_P99_MILLIS = Map.of("users.register", 1500.0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final AtomicLong nextUser = new AtomicLong();
+    private final List<Long> seededAssets = new ArrayList<>();
+    private final ConcurrentLinkedDeque<Long> createdAssets = new ConcurrentLinkedDeque<>();
+    private final List<String> seededUsers = new ArrayList<>();
+
+    @Test
+    void mixedWorkloadMeetsSlos() throws Exception {
+        Path userData = Files.createTempDirectory("api-load");
+        try (ConfigurableApplicationContext assetApp = start(new SpringApplicationBuilder(AssetManagementAppApplication.class),
+                "--spring.datasource.url=jdbc:h2:mem:api-load-assets");
+             ConfigurableApplicationContext userApp = start(new SpringApplicationBuilder(AssetManagementApplication.class),
+                     "--spring.datasource.url=jdbc:h2:mem:api-load-users",
+                     "--app.user.directories.base-path=" + userData)) {
+            URI assets = URI.create("http://localhost:" + port(assetApp) + "/api/assets");
+            URI users = URI.create("http://localhost:" + port(userApp) + "/api/users");
+            seed(assets, users);
+
+            OpenLoopLoadGenerator generator = new OpenLoopLoadGenerator(client);
+            generator.endpoint("assets.list", rate("assets.list"),
+                    () -> get(assets.resolve("/api/assets?limit=50")), null);
+            generator.endpoint("assets.get", rate("assets.get"),
+                    () -> get(assets.resolve("/api/assets/" + randomOf(seededAssets))), null);
+            generator.endpoint("assets.create", rate("assets.create"),
+                    () -> json(assets, "POST", assetJson()), body -> createdAssets.add(readId(body)));
+            generator.endpoint("assets.update", rate("assets.update"),
+                    () -> json(assets.resolve("/api/assets/" + randomOf(seededAssets)), "PUT", assetJson()), null);
+            generator.endpoint("assets.delete", rate("assets.delete"), () -> {
+                Long id = createdAssets.poll();
+                return id == null ? null : request(assets.resolve("/api/assets/" + id)).DELETE().build();
+            }, null);
+            generator.endpoint("users.register", rate("users.register"),
+                    () -> json(users.resolve("/api/users/register"), "POST", userJson()), null);
+            generator.endpoint("users.get", rate("users.get"),
+                    () -> get(users.resolve("/api/users/" + randomOf(seededUsers))), null);
+
+            Duration warmup = Duration.ofSeconds(Integer.getInteger("load.warmup-seconds", 5));
+            Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration-seconds", 30));
+            Map<String, EndpointResult> results = generator.run(warmup, duration);
+
+            List<String> breaches = sloBreaches(results);
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("benchmark", "api-load");
+            report.put("durationSeconds", duration.toSeconds());
+            report.put("endpoints", new TreeMap<>(results));
+            report.put("sloBreaches", breaches);
+            BenchmarkReport.write(objectMapper, "api-load", report);
+
+            assertTrue(breaches.isEmpty(), () -> "SLO breached: " + breaches);
+        } finally {
+            FileSystemUtils.deleteRecursively(userData);
+        }
+    }
+
+    private List<String> sloBreaches(Map<String, EndpointResult> results) {
+        double defaultP99 = Double.parseDouble(System.getProperty("load.slo.p99-ms", "500"));
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.slo.error-rate", "0.01"));
+        List<String> breaches = new ArrayList<>();
+        results.forEach((name, result) -> {
+            double p99 = Double.parseDouble(System.getProperty("load.slo." + name + ".p99-ms",
+                    String.valueOf(DEFAULT_P99_MILLIS.getOrDefault(name, defaultP99))));
+            if (result.p99Millis() > p99) {
+                breaches.add(String.format("%s p99 %.2f ms > %.2f ms", name, result.p99Millis(), p99));
+            }
+            if (result.errorRate() > maxErrorRate) {
+                breaches.add(String.format("%s error rate %.4f > %.4f", name, result.errorRate(), maxErrorRate));
+            }
+        });
+        return breaches;
+    }
+
+    private void seed(URI assets, URI users) throws Exception {
+        for (int i = 0; i < 200; i++) {
+            HttpResponse<String> response = client.send(json(assets, "POST", assetJson()), HttpResponse.BodyHandlers.ofString());
+            seededAssets.add(readId(response.body()));
+        }
+        for (int i = 0; i < 5; i++) {
+            String username = "load_user_" + nextUser.incrementAndGet();
+            client.send(json(users.resolve("/api/users/register"), "POST", userJson(username)), HttpResponse.BodyHandlers.ofString());
+            seededUsers.add(username);
+        }
+    }
+
+    private ConfigurableApplicationContext start(SpringApplicationBuilder builder, String... arguments) {
+        // Request-level DEBUG logging from application.properties is a development setting
+        List<String> all = new ArrayList<>(List.of("--server.port=0", "--spring.jpa.show-sql=false",
+                "--logging.level.org.springframework.web=INFO", "--logging.level.com.assetmanagement.app=INFO"));
+        all.addAll(List.of(arguments));
+        return builder.run(all.toArray(String[]::new));
+    }
+
+    private int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private double rate(String endpoint) {
+        return Double.parseDouble(System.getProperty("load.rate." + endpoint, String.valueOf(DEFAULT_RATES.get(endpoint))));
+    }
+
+    private HttpRequest.Builder request(URI uri) {
+        return HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30));
+    }
+
+    private HttpRequest get(URI uri) {
+        return request(uri).GET().build();
+    }
+
+    private HttpRequest json(URI uri, String method, String body) {
+        return request(uri)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private <T> T randomOf(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    private long readId(String body) {
+        try {
+            return objectMapper.readTree(body).get("id").asLong();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unexpected response: " + body, e);
+        }
+    }
+
+    private String assetJson() {
+        int i = ThreadLocalRandom.current().nextInt(10_000);
+        return String.format("{\"name\":\"Load asset %d\",\"type\":\"%s\",\"price\":%d.50,\"stillOwned\":%b,\"purchaseDate\":\"2020-01-%02d\"}",
+                i, i % 5 == 0 ? "Vehicle" : "Electronics", 100 + i % 900, i % 7 != 0, 1 + i % 28);
+    }
+
+    private String userJson() {
+        return userJson("load_user_" + nextUser.incrementAndGet());
+    }
+
+    private String userJson(String username) {
+        return String.format("{\"username\":\"%s\",\"email\":\"%s@example.com\",\"password\":\"load-test-password\"}",
+                username, username);
+    }
+}
@@ -0,0 +1,67 @@
+package com.nick.assetmanagementapp.benchmark;
+
+import com.assetmanagement.common.benchmark.BenchmarkReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nick.assetmanagementapp.dto.AssetImportReport;
+import com.nick.assetmanagementapp.repository.AssetRepository;
+import com.nick.assetmanagementapp.service.AssetDataFormat;
+import com.nick.assetmanagementapp.service.AssetImportService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Run with: mvn test -Dgroups=benchmark -DexcludedGroups=none -Dbenchmark.import.rows=100000
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class AssetImportBenchmarkTests {
+
+    @Autowired
+    private AssetImportService assetImportService;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void importThroughput() throws Exception {
+        int rows = Integer.getInteger("benchmark.import.rows", 100_000);
+        byte[] csv = syntheticCsv(rows);
+
+        // Warm up the JIT and connection pool before the measured run
+        assetImportService.importAssets(AssetDataFormat.CSV, new ByteArrayInputStream(syntheticCsv(5_000)), null);
+        assetRepository.deleteAllInBatch();
+
+        AssetImportReport report = assetImportService.importAssets(AssetDataFormat.CSV, new ByteArrayInputStream(csv), null);
+        assertEquals(rows, report.getImported());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "asset-import-csv");
+        result.put("rows", rows);
+        result.put("elapsedMillis", report.getElapsedMillis());
+        result.put("rowsPerSecond", BenchmarkReport.rounded(report.getRowsPerSecond()));
+        BenchmarkReport.write(objectMapper, "asset-import", result);
+    }
+
+    private byte[] syntheticCsv(int rows) {
+        StringBuilder csv = new StringBuilder("name,type,price,stillOwned,purchaseDate\n");
+        LocalDate start = LocalDate.of(2015, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            csv.append("Asset ").append(i).append(',')
+                    .append(i % 5 == 0 ? "Vehicle" : "Electronics").append(',')
+                    .append(100 + i % 900).append(".50,")
+                    .append(i % 7 != 0).append(',')
+                    .append(start.plusDays(i % 3000)).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,88 @@
+package com.nick.assetmanagementapp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.nick.assetmanagementapp.dto.PartialAsset;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson serialization of both Asset models in each negotiable encoding, configured the way Spring MVC
+// configures its mappers, plus the id, name and price fieldset mobile clients request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssetSerializationBenchmark {
+
+    @Param({"1", "100"})
+    public int batch;
+
+    @Param({"json", "cbor", "smile"})
+    public String encoding;
+
+    private ObjectWriter writer;
+    private List<com.nick.assetmanagementapp.model.Asset> assets;
+    private List<com.assetmanagement.app.model.Asset> userAssets;
+    private List<PartialAsset> partialAssets;
+
+    @Setup
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        switch (encoding) {
+            case "cbor" -> builder.factory(new CBORFactory());
+            case "smile" -> builder.factory(new SmileFactory());
+            default -> { }
+        }
+        ObjectMapper objectMapper = builder.build();
+        writer = objectMapper.writer();
+        assets = new ArrayList<>();
+        userAssets = new ArrayList<>();
+        partialAssets = new ArrayList<>();
+        for (int i = 0; i < batch; i++) {
+            com.nick.assetmanagementapp.model.Asset asset = AssetServiceBenchmark.newAsset(i);
+            asset.setId(i + 1);
+            assets.add(asset);
+
+            PartialAsset partialAsset = new PartialAsset();
+            partialAsset.setId(asset.getId());
+            partialAsset.setName(asset.getName());
+            partialAsset.setPrice(asset.getPrice());
+            partialAssets.add(partialAsset);
+
+            com.assetmanagement.app.model.Asset userAsset = new com.assetmanagement.app.model.Asset();
+            userAsset.setId(i + 1L);
+            userAsset.setName("scan-" + i + ".pdf");
+            userAsset.setDescription("Scanned receipt number " + i);
+            userAsset.setFilePath("user-data/alice_1/documents/scan-" + i + ".pdf");
+            userAsset.setFileSize(48_000L + i);
+            userAsset.setFileType("application/pdf");
+            userAsset.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(i));
+            userAsset.setUpdatedAt(userAsset.getCreatedAt());
+            userAssets.add(userAsset);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeAssets() throws Exception {
+        return writer.writeValueAsBytes(assets);
+    }
+
+    @Benchmark
+    public byte[] serializePartialAssets() throws Exception {
+        return writer.writeValueAsBytes(partialAssets);
+    }
+
+    @Benchmark
+    public byte[] serializeUserAssets() throws Exception {
+        return writer.writeValueAsBytes(userAssets);
+    }
+}
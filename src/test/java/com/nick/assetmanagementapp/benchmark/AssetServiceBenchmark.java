@@ -0,0 +1,73 @@
+package com.nick.assetmanagementapp.benchmark;
+
+import com.nick.assetmanagementapp.AssetManagementAppApplication;
+import com.nick.assetmanagementapp.model.Asset;
+import com.nick.assetmanagementapp.service.AssetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// AssetService hot paths against the embedded H2 database, driven by JmhBenchmarkTests
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssetServiceBenchmark {
+
+    @Param({"1000"})
+    public int assets;
+
+    private ConfigurableApplicationContext context;
+    private AssetService assetService;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(AssetManagementAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false", "--spring.datasource.url=jdbc:h2:mem:asset-service-benchmark");
+        assetService = context.getBean(AssetService.class);
+        ids = new long[assets];
+        for (int i = 0; i < assets; i++) {
+            ids[i] = assetService.saveAsset(newAsset(i)).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Asset saveAsset() {
+        return assetService.saveAsset(newAsset(ThreadLocalRandom.current().nextInt(10_000)));
+    }
+
+    @Benchmark
+    public List<Asset> getAllAssets() {
+        return assetService.getAllAssets();
+    }
+
+    @Benchmark
+    public Asset getAssetById() {
+        return assetService.getAssetById(ids[ThreadLocalRandom.current().nextInt(ids.length)]).orElseThrow();
+    }
+
+    static Asset newAsset(int i) {
+        Asset asset = new Asset();
+        asset.setName("Asset " + i);
+        asset.setType(i % 5 == 0 ? "Vehicle" : "Electronics");
+        asset.setPrice(100.0 + i % 900);
+        asset.setStillOwned(i % 7 != 0);
+        asset.setPurchaseDate(LocalDate.of(2015, 1, 1).plusDays(i % 3000));
+        return asset;
+    }
+}
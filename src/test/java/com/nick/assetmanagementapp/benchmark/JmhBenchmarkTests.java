@@ -0,0 +1,40 @@
+package com.nick.assetmanagementapp.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Runs the JMH benchmarks of both applications and writes target/benchmarks/jmh.json.
+// Run with: mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=JmhBenchmarkTests
+// Narrow the run with -Djmh.include=<regex>, shorten it with -Djmh.warmup=1 -Djmh.iterations=2
+@Tag("benchmark")
+class JmhBenchmarkTests {
+
+    @Test
+    void runBenchmarks() throws Exception {
+        Path output = Path.of("target", "benchmarks", "jmh.json");
+        Files.createDirectories(output.getParent());
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(System.getProperty("jmh.include", "com\\.(nick\\.assetmanagementapp|assetmanagement\\.app)\\.benchmark\\..*Benchmark"))
+                .shouldFailOnError(true)
+                .resultFormat(ResultFormatType.JSON)
+                .result(output.toString());
+        if (System.getProperty("jmh.warmup") != null) {
+            options.warmupIterations(Integer.getInteger("jmh.warmup"));
+        }
+        if (System.getProperty("jmh.iterations") != null) {
+            options.measurementIterations(Integer.getInteger("jmh.iterations"));
+        }
+
+        assertFalse(new Runner(options.build()).run().isEmpty());
+    }
+}
@@ -0,0 +1,66 @@
+package com.nick.assetmanagementapp.benchmark;
+
+import com.nick.assetmanagementapp.event.AssetChangeEvent;
+import com.nick.assetmanagementapp.journal.AssetMutationJournal;
+import com.nick.assetmanagementapp.model.Asset;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Replay rate of the asset journal into change events (reported per record), and durable appends
+// from concurrent writers sharing group commits
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MutationJournalBenchmark {
+
+    private static final int RECORDS = 1_000_000;
+
+    private Path directory;
+    private AssetMutationJournal replayJournal;
+    private AssetMutationJournal appendJournal;
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        replayJournal = new AssetMutationJournal(directory.resolve("replay").toString(), 64 << 20, false);
+        for (int i = 0; i < RECORDS; i++) {
+            Asset asset = AssetServiceBenchmark.newAsset(i);
+            asset.setId(i % 100_000 + 1);
+            replayJournal.onAssetChange(AssetChangeEvent.saved(asset, i < 100_000));
+        }
+        appendJournal = new AssetMutationJournal(directory.resolve("append").toString(), 64 << 20, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        replayJournal.close();
+        appendJournal.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long replay(Blackhole blackhole) {
+        return replayJournal.replay(0, blackhole::consume);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void appendDurable() {
+        int id = nextId.incrementAndGet();
+        Asset asset = AssetServiceBenchmark.newAsset(id);
+        asset.setId(id);
+        appendJournal.onAssetChange(AssetChangeEvent.saved(asset, true));
+    }
+}
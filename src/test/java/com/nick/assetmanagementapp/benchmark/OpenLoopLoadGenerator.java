@@ -0,0 +1,164 @@
+package com.nick.assetmanagementapp.benchmark;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Issues requests on a fixed schedule per endpoint whether or not earlier ones have completed, and
+// measures latency from the scheduled send time so a stalled server cannot hide its queueing delay
+class OpenLoopLoadGenerator {
+
+    private final HttpClient client;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    OpenLoopLoadGenerator(HttpClient client) {
+        this.client = client;
+    }
+
+    // The request supplier may return null to skip a slot, e.g. when there is nothing left to delete
+    void endpoint(String name, double ratePerSecond, Supplier<HttpRequest> request, Consumer<String> onSuccess) {
+        if (ratePerSecond > 0) {
+            endpoints.add(new Endpoint(name, ratePerSecond, request, onSuccess));
+        }
+    }
+
+    Map<String, EndpointResult> run(Duration warmup, Duration duration) throws InterruptedException {
+        drive(warmup);
+        endpoints.forEach(Endpoint::reset);
+
+        long started = System.nanoTime();
+        // Rates are over the sending window; requests still completing afterwards are counted but not timed
+        double elapsedSeconds = (drive(duration) - started) / 1e9;
+
+        Map<String, EndpointResult> results = new TreeMap<>();
+        for (Endpoint endpoint : endpoints) {
+            results.put(endpoint.name, endpoint.result(elapsedSeconds));
+        }
+        return results;
+    }
+
+    // Returns when the last request was sent, before waiting for the in-flight ones
+    private long drive(Duration duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long[] next = new long[endpoints.size()];
+        Arrays.fill(next, start);
+
+        while (true) {
+            int due = 0;
+            for (int i = 1; i < next.length; i++) {
+                if (next[i] < next[due]) {
+                    due = i;
+                }
+            }
+            if (next[due] >= end) {
+                break;
+            }
+            long wait = next[due] - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = endpoints.get(due);
+            send(endpoint, next[due]);
+            next[due] += endpoint.intervalNanos;
+        }
+        long lastSent = System.nanoTime();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return lastSent;
+    }
+
+    private void send(Endpoint endpoint, long intendedStart) {
+        HttpRequest request = endpoint.request.get();
+        if (request == null) {
+            endpoint.skipped.incrementAndGet();
+            return;
+        }
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+            try {
+                endpoint.latency.recordValue(Math.max(0, (System.nanoTime() - intendedStart) / 1_000));
+                endpoint.requests.incrementAndGet();
+                if (failure != null || response.statusCode() >= 400) {
+                    endpoint.errors.incrementAndGet();
+                } else if (endpoint.onSuccess != null) {
+                    endpoint.onSuccess.accept(response.body());
+                }
+            } catch (RuntimeException e) {
+                // A response the callback could not handle counts as failed
+                endpoint.errors.incrementAndGet();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    record EndpointResult(double targetRate, long requests, long errors, long skipped, double errorRate,
+                          double throughput, double p50Millis, double p99Millis, double p999Millis,
+                          double maxMillis) {
+    }
+
+    private static final class Endpoint {
+
+        final String name;
+        final double ratePerSecond;
+        final long intervalNanos;
+        final Supplier<HttpRequest> request;
+        final Consumer<String> onSuccess;
+        final Recorder latency = new Recorder(3);
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+
+        Endpoint(String name, double ratePerSecond, Supplier<HttpRequest> request, Consumer<String> onSuccess) {
+            this.name = name;
+            this.ratePerSecond = ratePerSecond;
+            this.intervalNanos = (long) (1e9 / ratePerSecond);
+            this.request = request;
+            this.onSuccess = onSuccess;
+        }
+
+        void reset() {
+            latency.reset();
+            requests.set(0);
+            errors.set(0);
+            skipped.set(0);
+        }
+
+        EndpointResult result(double elapsedSeconds) {
+            Histogram histogram = latency.getIntervalHistogram();
+            long count = requests.get();
+            return new EndpointResult(ratePerSecond, count, errors.get(), skipped.get(),
+                    count == 0 ? 0 : (double) errors.get() / count, round(count / elapsedSeconds),
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return round(micros / 1000.0);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+}
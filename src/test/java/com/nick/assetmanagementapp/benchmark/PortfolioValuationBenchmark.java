@@ -0,0 +1,65 @@
+package com.nick.assetmanagementapp.benchmark;
+
+import com.nick.assetmanagementapp.dto.PortfolioValuation;
+import com.nick.assetmanagementapp.service.AssetValuationIndex;
+import com.nick.assetmanagementapp.service.ValuationInterval;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+// Range valuations over the columnar index at multi-million asset counts
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PortfolioValuationBenchmark {
+
+    private static final List<String> TYPES = List.of("Electronics", "Furniture", "Vehicle", "Jewelry", "Tools");
+    private static final ToDoubleFunction<String> RATES = type -> type.equals("Jewelry") ? 0 : 0.2;
+
+    @Param({"5000000"})
+    public int assets;
+
+    private ExecutorService scanPool;
+    private AssetValuationIndex index;
+    private List<LocalDate> monthly;
+    private List<LocalDate> singleDate;
+
+    @Setup
+    public void setUp() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        scanPool = Executors.newFixedThreadPool(Math.max(1, threads - 1));
+        index = new AssetValuationIndex(scanPool, threads);
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate first = LocalDate.of(2000, 1, 1);
+        for (int id = 1; id <= assets; id++) {
+            index.put(id, TYPES.get(random.nextInt(TYPES.size())), 10 + random.nextInt(5000),
+                    first.plusDays(random.nextInt(9000)), random.nextInt(4) != 0);
+        }
+        monthly = ValuationInterval.MONTH.datesBetween(LocalDate.of(2015, 1, 1), LocalDate.of(2024, 12, 31), 10_000);
+        singleDate = List.of(LocalDate.of(2020, 6, 30));
+    }
+
+    @TearDown
+    public void tearDown() {
+        scanPool.shutdownNow();
+    }
+
+    @Benchmark
+    public PortfolioValuation monthlyOverTenYears() {
+        return index.valuate(monthly, null, false, RATES);
+    }
+
+    @Benchmark
+    public PortfolioValuation singleDate() {
+        return index.valuate(singleDate, null, false, RATES);
+    }
+}
@@ -0,0 +1,125 @@
+package com.nick.assetmanagementapp.benchmark;
+
+import com.assetmanagement.common.benchmark.BenchmarkReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nick.assetmanagementapp.AssetManagementAppApplication;
+import com.nick.assetmanagementapp.model.Asset;
+import com.nick.assetmanagementapp.repository.AssetRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Runs the same closed-loop load against the app with Tomcat's platform pool and with virtual threads.
+// Run with: mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=VirtualThreadLoadBenchmarkTests
+@Tag("benchmark")
+class VirtualThreadLoadBenchmarkTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        int requests = Integer.getInteger("benchmark.requests", 20_000);
+        int concurrency = Integer.getInteger("benchmark.concurrency", 400);
+
+        Map<String, Object> platform = run(false, requests, concurrency);
+        Map<String, Object> virtual = run(true, requests, concurrency);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "virtual-threads");
+        result.put("results", List.of(platform, virtual));
+        BenchmarkReport.write(objectMapper, "virtual-threads", result);
+    }
+
+    private Map<String, Object> run(boolean virtualThreads, int requests, int concurrency) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AssetManagementAppApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--server.tomcat.threads.max=50",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.springframework.web=INFO",
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads)) {
+            seed(context.getBean(AssetRepository.class));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/api/assets?limit=50&sort=purchaseDate");
+
+            // Warm up the JIT and the connection pool before measuring
+            load(uri, 2_000, concurrency, new long[2_000]);
+
+            long[] latencies = new long[requests];
+            long started = System.nanoTime();
+            int failures = load(uri, requests, concurrency, latencies);
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+            assertEquals(0, failures);
+
+            Arrays.sort(latencies);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("mode", virtualThreads ? "virtual" : "platform-50");
+            result.put("requests", requests);
+            result.put("concurrency", concurrency);
+            result.put("elapsedMillis", elapsedMillis);
+            result.put("requestsPerSecond", BenchmarkReport.rounded(requests * 1000.0 / Math.max(1, elapsedMillis)));
+            result.put("p50Micros", latencies[requests / 2]);
+            result.put("p99Micros", latencies[(int) (requests * 0.99) - 1]);
+            result.put("maxMicros", latencies[requests - 1]);
+            return result;
+        }
+    }
+
+    private int load(URI uri, int requests, int concurrency, long[] latencies) {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        HttpRequest request = HttpRequest.newBuilder(uri).build();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                clients.execute(() -> {
+                    for (int n = next.getAndIncrement(); n < requests; n = next.getAndIncrement()) {
+                        long start = System.nanoTime();
+                        try {
+                            if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[n] = (System.nanoTime() - start) / 1_000;
+                    }
+                });
+            }
+        }
+        return failures.get();
+    }
+
+    private void seed(AssetRepository assetRepository) {
+        List<Asset> assets = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Asset asset = new Asset();
+            asset.setName("Asset " + i);
+            asset.setType(i % 3 == 0 ? "Vehicle" : "Electronics");
+            asset.setPrice(100.0 + i);
+            asset.setStillOwned(i % 4 != 0);
+            asset.setPurchaseDate(LocalDate.of(2015, 1, 1).plusDays(i));
+            assets.add(asset);
+        }
+        assetRepository.saveAll(assets);
+    }
+}
@@ -0,0 +1,104 @@
+package com.nick.assetmanagementapp.service;
+
+import com.assetmanagement.common.config.IoThreadFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nick.assetmanagementapp.event.AssetChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssetChangeFeedServiceTests {
+
+    private static final int QUEUE_SIZE = 4;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AssetChangeFeedService feed = new AssetChangeFeedService(
+            new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry, new IoThreadFactory(),
+            100, 100, 60_000, QUEUE_SIZE);
+
+    @AfterEach
+    void shutdown() {
+        feed.shutdown();
+    }
+
+    @Test
+    void stalledSubscriberIsDroppedWithoutDelayingOthers() throws Exception {
+        CountDownLatch stallReleased = new CountDownLatch(1);
+        StalledEmitter stalled = new StalledEmitter(stallReleased);
+        CountingEmitter healthy = new CountingEmitter();
+        feed.subscribe(stalled, null);
+        feed.subscribe(healthy, null);
+        // Subscribers without a Last-Event-ID start from the changes after they are registered
+        assertTrue(healthy.awaitSent(1));
+
+        // One change blocks the stalled writer; the rest fill its queue and then overflow it
+        int changes = QUEUE_SIZE + 3;
+        for (long id = 1; id <= changes; id++) {
+            feed.onAssetChange(AssetChangeEvent.deleted(id));
+        }
+
+        // The connected comment plus every change
+        assertTrue(healthy.awaitSent(changes + 1), "healthy subscriber was held up");
+        assertTrue(stalled.failed.await(5, TimeUnit.SECONDS), "stalled subscriber was not dropped");
+        assertEquals(1.0, meterRegistry.get("asset.changes.subscribers").gauge().value());
+
+        stallReleased.countDown();
+        feed.onAssetChange(AssetChangeEvent.deleted(changes + 1));
+        assertTrue(healthy.awaitSent(changes + 2));
+    }
+
+    private static final class StalledEmitter extends SseEmitter {
+
+        private final CountDownLatch released;
+        private final CountDownLatch failed = new CountDownLatch(1);
+
+        private StalledEmitter(CountDownLatch released) {
+            this.released = released;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            failed.countDown();
+        }
+    }
+
+    private static final class CountingEmitter extends SseEmitter {
+
+        private final AtomicInteger sent = new AtomicInteger();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.incrementAndGet();
+        }
+
+        private boolean awaitSent(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sent.get() < count) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(10);
+            }
+            return true;
+        }
+    }
+}
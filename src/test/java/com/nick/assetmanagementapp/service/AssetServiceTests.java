@@ -0,0 +1,301 @@
+package com.nick.assetmanagementapp.service;
+
+import com.nick.assetmanagementapp.dto.AssetBatchOperation;
+import com.nick.assetmanagementapp.dto.AssetBatchResponse;
+import com.nick.assetmanagementapp.dto.AssetChangeSet;
+import com.nick.assetmanagementapp.dto.AssetFilter;
+import com.nick.assetmanagementapp.dto.AssetImportReport;
+import com.nick.assetmanagementapp.dto.AssetPage;
+import com.nick.assetmanagementapp.dto.AssetPatch;
+import com.nick.assetmanagementapp.dto.PartialAsset;
+import com.nick.assetmanagementapp.dto.PartialAssetPage;
+import com.nick.assetmanagementapp.dto.PortfolioSummary;
+import com.nick.assetmanagementapp.event.AssetChangeEvent;
+import com.nick.assetmanagementapp.exception.AssetBatchRejectedException;
+import com.nick.assetmanagementapp.exception.AssetVersionMismatchException;
+import com.nick.assetmanagementapp.model.Asset;
+import com.nick.assetmanagementapp.repository.AssetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AssetServiceTests {
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private AssetExportService assetExportService;
+
+    @Autowired
+    private AssetImportService assetImportService;
+
+    @Autowired
+    private PortfolioAggregationService portfolioAggregationService;
+
+    @Autowired
+    private AssetBatchService assetBatchService;
+
+    @Autowired
+    private AssetChangeFeedService assetChangeFeedService;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @BeforeEach
+    void setUp() {
+        assetRepository.deleteAll();
+        for (int i = 0; i < 25; i++) {
+            Asset asset = new Asset();
+            asset.setName("Asset " + i);
+            asset.setType(i % 2 == 0 ? "Electronics" : "Furniture");
+            asset.setPrice(100.0 + i);
+            asset.setStillOwned(i % 3 != 0);
+            // Several assets share a purchase date so the id tie-breaker is exercised
+            asset.setPurchaseDate(LocalDate.of(2020, 1, 1).plusDays(i / 4));
+            assetService.saveAsset(asset);
+        }
+    }
+
+    @Test
+    void pagesThroughAllAssetsWithoutDuplicates() {
+        for (AssetSort sort : AssetSort.values()) {
+            List<Asset> seen = new ArrayList<>();
+            String cursor = null;
+            do {
+                AssetPage page = assetService.getAssetPage(new AssetFilter(), sort, cursor, 7);
+                seen.addAll(page.getItems());
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            Set<Long> ids = new HashSet<>();
+            seen.forEach(asset -> ids.add(asset.getId()));
+            assertEquals(25, seen.size());
+            assertEquals(25, ids.size());
+        }
+    }
+
+    @Test
+    void appliesFiltersAcrossPages() {
+        AssetFilter filter = new AssetFilter("Electronics", true, 105.0, 120.0);
+        AssetPage first = assetService.getAssetPage(filter, AssetSort.PURCHASE_DATE, null, 2);
+        AssetPage second = assetService.getAssetPage(filter, AssetSort.PURCHASE_DATE, first.getNextCursor(), 10);
+
+        List<Asset> all = new ArrayList<>(first.getItems());
+        all.addAll(second.getItems());
+        assertNull(second.getNextCursor());
+        assertFalse(all.isEmpty());
+        all.forEach(asset -> {
+            assertEquals("Electronics", asset.getType());
+            assertTrue(asset.isStillOwned());
+            assertTrue(asset.getPrice() >= 105.0 && asset.getPrice() <= 120.0);
+        });
+    }
+
+    @Test
+    void rejectsCursorFromAnotherSort() {
+        AssetPage page = assetService.getAssetPage(new AssetFilter(), AssetSort.ID, null, 5);
+        assertThrows(IllegalArgumentException.class,
+                () -> assetService.getAssetPage(new AssetFilter(), AssetSort.PURCHASE_DATE, page.getNextCursor(), 5));
+        assertThrows(IllegalArgumentException.class,
+                () -> assetService.getAssetPage(new AssetFilter(), AssetSort.ID, "not-a-cursor", 5));
+    }
+
+    @Test
+    void servesSparseFieldsetsWithTheSameCursors() {
+        AssetFilter filter = new AssetFilter("Furniture", null, null, null);
+        PartialAssetPage first = assetService.getPartialAssetPage(filter, AssetSort.PURCHASE_DATE, null, 5,
+                AssetField.parse("name, price"));
+        AssetPage full = assetService.getAssetPage(filter, AssetSort.PURCHASE_DATE, null, 5);
+        AssetPage second = assetService.getAssetPage(filter, AssetSort.PURCHASE_DATE, first.getNextCursor(), 10);
+
+        assertEquals(full.getNextCursor(), first.getNextCursor());
+        assertEquals(full.getItems().stream().map(Asset::getName).toList(),
+                first.getItems().stream().map(PartialAsset::getName).toList());
+        first.getItems().forEach(asset -> {
+            assertNotNull(asset.getPrice());
+            assertNull(asset.getId());
+            assertNull(asset.getPurchaseDate());
+        });
+        assertEquals(7, second.getItems().size());
+        assertThrows(IllegalArgumentException.class, () -> AssetField.parse("name,password"));
+    }
+
+    @Test
+    void exportsEveryAssetAsNdjsonAndCsv() throws Exception {
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        assertEquals(25, assetExportService.exportAssets(AssetDataFormat.NDJSON, ndjson));
+        assertEquals(25, ndjson.toString(StandardCharsets.UTF_8).lines().count());
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        assertEquals(25, assetExportService.exportAssets(AssetDataFormat.CSV, csv));
+        List<String> lines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(26, lines.size());
+        assertEquals("id,name,type,price,stillOwned,purchaseDate", lines.get(0));
+    }
+
+    @Test
+    void importsValidRowsAndReportsInvalidOnes() throws Exception {
+        String csv = """
+                name,type,price,stillOwned,purchaseDate
+                "Desk, oak",Furniture,250.0,true,2021-05-01
+                X,Furniture,10.0,true,2021-05-01
+                Chair,,40.0,false,2021-05-02
+                Lamp,Furniture,abc,true,2021-05-03
+                Monitor,Electronics,199.99,true,2022-02-30
+                Phone,Electronics,799.0,false,2022-03-01
+                """;
+
+        AssetImportReport report = assetImportService.importAssets(AssetDataFormat.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 2);
+
+        assertEquals(6, report.getRowsRead());
+        assertEquals(2, report.getImported());
+        assertEquals(4, report.getFailed());
+        assertEquals(List.of(2L, 3L, 4L, 5L), report.getErrors().stream().map(AssetImportReport.RowError::getRow).toList());
+        assertEquals(27, assetRepository.count());
+    }
+
+    @Test
+    void reportsAnUnterminatedQuoteAsTheLastRowError() throws Exception {
+        String csv = """
+                name,type,price,stillOwned,purchaseDate
+                Desk,Furniture,250.0,true,2021-05-01
+                Chair,Furniture,40.0,true,2021-05-02
+                "Lamp,Furniture,30.0,true,2021-05-03
+                Phone,Electronics,799.0,false,2022-03-01
+                """;
+
+        AssetImportReport report = assetImportService.importAssets(AssetDataFormat.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 10);
+
+        assertEquals(3, report.getRowsRead());
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getFailed());
+        AssetImportReport.RowError error = report.getErrors().get(0);
+        assertEquals(3L, error.getRow());
+        assertEquals("Unterminated quoted field starting on line 4", error.getMessage());
+    }
+
+    @Test
+    void appliesConditionalWritesOnlyToTheExpectedVersion() {
+        Asset asset = assetService.getAllAssets().get(0);
+        long version = asset.getVersion();
+
+        AssetPatch patch = new AssetPatch();
+        patch.setStillOwned(false);
+        patch.setPrice(42.0);
+        Asset patched = assetService.patchAsset(asset.getId(), patch, version).orElseThrow();
+        assertEquals(version + 1, patched.getVersion());
+        assertEquals(asset.getName(), patched.getName());
+        assertEquals(42.0, patched.getPrice());
+        assertFalse(patched.isStillOwned());
+
+        AssetVersionMismatchException stale = assertThrows(AssetVersionMismatchException.class,
+                () -> assetService.replaceAsset(asset.getId(), asset, version));
+        assertEquals(version + 1, stale.getCurrentVersion());
+        assertThrows(AssetVersionMismatchException.class, () -> assetService.deleteAsset(asset.getId(), version));
+
+        assertTrue(assetService.deleteAsset(asset.getId(), version + 1));
+        assertFalse(assetService.deleteAsset(asset.getId(), version + 1));
+        assertTrue(assetService.patchAsset(asset.getId(), patch, version + 1).isEmpty());
+    }
+
+    @Test
+    void keepsPortfolioSummaryInStepWithMutations() {
+        portfolioAggregationService.rebuild();
+        PortfolioSummary initial = portfolioAggregationService.getSummary();
+        assertEquals(25, initial.getTotalAssets());
+
+        Asset sold = assetService.getAllAssets().get(0);
+        sold.setStillOwned(false);
+        sold.setType("Vehicle");
+        assetService.saveAsset(sold);
+        assetService.deleteAsset(assetService.getAllAssets().get(1).getId(), null);
+
+        PortfolioSummary incremental = portfolioAggregationService.getSummary();
+        portfolioAggregationService.rebuild();
+        PortfolioSummary reconciled = portfolioAggregationService.getSummary();
+
+        assertEquals(24, incremental.getTotalAssets());
+        assertEquals(reconciled.getOwnedCount(), incremental.getOwnedCount());
+        assertEquals(reconciled.getDisposedCount(), incremental.getDisposedCount());
+        assertEquals(reconciled.getValueByType().keySet(), incremental.getValueByType().keySet());
+        assertEquals(reconciled.getOwnedValue(), incremental.getOwnedValue(), 0.001);
+        assertEquals(reconciled.getSpendByPurchaseYear().get(2020).getTotalPrice(),
+                incremental.getSpendByPurchaseYear().get(2020).getTotalPrice(), 0.001);
+    }
+
+    @Test
+    void appliesBatchesAtomically() {
+        List<Asset> assets = assetService.getAllAssets();
+        AssetPatch sold = new AssetPatch();
+        sold.setStillOwned(false);
+        AssetPatch created = new AssetPatch();
+        created.setName("Batch asset");
+        created.setType("Vehicle");
+        created.setPrice(10.0);
+        created.setPurchaseDate(LocalDate.of(2024, 5, 1));
+
+        List<AssetBatchOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            operations.add(new AssetBatchOperation(AssetBatchOperation.Type.UPDATE, assets.get(i).getId(), null, sold));
+        }
+        operations.add(new AssetBatchOperation(AssetBatchOperation.Type.CREATE, null, null, created));
+        operations.add(new AssetBatchOperation(AssetBatchOperation.Type.DELETE, assets.get(10).getId(),
+                assets.get(10).getVersion(), new AssetPatch()));
+        AssetBatchResponse applied = assetBatchService.applyBatch(operations);
+
+        assertTrue(applied.isApplied());
+        assertEquals(1L, applied.getResults().get(0).getVersion());
+        assertEquals(201, applied.getResults().get(10).getStatus());
+        assertEquals(204, applied.getResults().get(11).getStatus());
+        assertEquals(25, assetRepository.count());
+        assertFalse(assetRepository.findById(assets.get(9).getId()).orElseThrow().isStillOwned());
+
+        // The stale version fails the delete, so the rename before it must not stick either
+        AssetPatch renamed = new AssetPatch();
+        renamed.setName("Renamed");
+        AssetBatchRejectedException rejected = assertThrows(AssetBatchRejectedException.class,
+                () -> assetBatchService.applyBatch(List.of(
+                        new AssetBatchOperation(AssetBatchOperation.Type.UPDATE, assets.get(12).getId(), null, renamed),
+                        new AssetBatchOperation(AssetBatchOperation.Type.DELETE, assets.get(13).getId(), 7L,
+                                new AssetPatch()))));
+
+        assertEquals(424, rejected.getResponse().getResults().get(0).getStatus());
+        assertEquals(412, rejected.getResponse().getResults().get(1).getStatus());
+        assertEquals(assets.get(12).getName(), assetRepository.findById(assets.get(12).getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void feedsCommittedChangesSinceACursor() {
+        long cursor = assetChangeFeedService.getChangesSince(null, null).getLastSequence();
+        Asset asset = assetService.getAllAssets().get(0);
+        asset.setPrice(999.0);
+        assetService.saveAsset(asset);
+        assetService.deleteAsset(asset.getId(), null);
+
+        AssetChangeSet first = assetChangeFeedService.getChangesSince(cursor, 1);
+        AssetChangeSet rest = assetChangeFeedService.getChangesSince(first.getLastSequence(), null);
+
+        assertTrue(first.isHasMore());
+        assertEquals(AssetChangeEvent.Type.UPDATED, first.getChanges().get(0).getType());
+        assertEquals(999.0, first.getChanges().get(0).getAsset().getPrice());
+        assertEquals(AssetChangeEvent.Type.DELETED, rest.getChanges().get(0).getType());
+        assertFalse(rest.isHasMore());
+        assertTrue(assetChangeFeedService.getChangesSince(0L, null).isResetRequired());
+    }
+}
@@ -0,0 +1,137 @@
+package com.nick.assetmanagementapp.service;
+
+import com.nick.assetmanagementapp.dto.PortfolioValuation;
+import com.nick.assetmanagementapp.dto.ValuationSeries;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssetValuationIndexTests {
+
+    private static final List<String> TYPES = List.of("Electronics", "Furniture", "Vehicle");
+    private static final ToDoubleFunction<String> RATES = type -> switch (type) {
+        case "Electronics" -> 0.3;
+        case "Vehicle" -> 0.15;
+        default -> 0.0;
+    };
+
+    private record Row(String type, double price, LocalDate purchaseDate, boolean owned) {
+    }
+
+    @Test
+    void matchesADirectComputationAfterUpdatesAndRemovals() {
+        ExecutorService scanPool = Executors.newFixedThreadPool(3);
+        try {
+            // Enough rows to split the scan across the caller and the pool
+            matchesADirectComputation(new AssetValuationIndex(scanPool, 4));
+        } finally {
+            scanPool.shutdownNow();
+        }
+    }
+
+    @Test
+    void valuesASingleDateAndKeepsMonthEnds() {
+        AssetValuationIndex index = new AssetValuationIndex();
+        index.put(1, "Electronics", 1000, LocalDate.of(2020, 1, 1), true);
+        index.put(2, "Furniture", 500, LocalDate.of(2023, 1, 1), true);
+
+        PortfolioValuation valuation = index.valuate(List.of(LocalDate.of(2022, 1, 1)), null, false, RATES);
+
+        assertArrayEquals(new long[]{1}, valuation.getTotal().getHoldings());
+        // Two years at 30% a year, counting the leap day
+        assertEquals(1000 * Math.pow(0.7, 731 / 365.25), valuation.getTotal().getValue()[0], 0.01);
+        assertEquals(List.of(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 31)),
+                ValuationInterval.MONTH.datesBetween(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 3, 31), 10));
+    }
+
+    @Test
+    void staysFiniteForSteepRatesOverLongRanges() {
+        AssetValuationIndex index = new AssetValuationIndex();
+        index.put(1, "Electronics", 1000, LocalDate.of(1900, 1, 1), true);
+        index.put(2, "Electronics", 1000, LocalDate.of(2069, 1, 1), true);
+
+        List<LocalDate> dates = ValuationInterval.YEAR.datesBetween(
+                LocalDate.of(1900, 1, 1), LocalDate.of(2070, 1, 1), 1000);
+        PortfolioValuation valuation = index.valuate(dates, null, false, type -> 0.9999);
+
+        double[] values = valuation.getTotal().getValue();
+        // Each asset keeps a ten-thousandth of its value a year after purchase, and then next to nothing
+        assertEquals(1000, values[0], 0.01);
+        assertEquals(0.1, values[1], 0.01);
+        assertEquals(1000, values[values.length - 2], 0.01);
+        assertEquals(0.1, values[values.length - 1], 0.01);
+    }
+
+    private void matchesADirectComputation(AssetValuationIndex index) {
+        Map<Long, Row> rows = new HashMap<>();
+        Random random = new Random(42);
+        for (long id = 1; id <= 200_000; id++) {
+            put(index, rows, id, random);
+        }
+        for (int i = 0; i < 50_000; i++) {
+            long id = 1 + random.nextInt(200_000);
+            if (random.nextBoolean()) {
+                index.remove(id);
+                rows.remove(id);
+            } else {
+                put(index, rows, id, random);
+            }
+        }
+        assertEquals(rows.size(), index.size());
+
+        List<LocalDate> dates = ValuationInterval.QUARTER.datesBetween(
+                LocalDate.of(2015, 1, 1), LocalDate.of(2024, 12, 31), 1000);
+        for (boolean includeSold : new boolean[]{false, true}) {
+            PortfolioValuation valuation = index.valuate(dates, null, includeSold, RATES);
+            assertSeries(expected(rows, dates, null, includeSold), valuation.getTotal());
+            assertSeries(expected(rows, dates, "Vehicle", includeSold), valuation.getByType().get("Vehicle"));
+        }
+        PortfolioValuation electronics = index.valuate(dates, Set.of("Electronics"), false, RATES);
+        assertEquals(Set.of("Electronics"), electronics.getByType().keySet());
+        assertSeries(expected(rows, dates, "Electronics", false), electronics.getTotal());
+    }
+
+    private void put(AssetValuationIndex index, Map<Long, Row> rows, long id, Random random) {
+        Row row = new Row(TYPES.get(random.nextInt(TYPES.size())), 10 + random.nextInt(5000),
+                LocalDate.of(2010, 1, 1).plusDays(random.nextInt(6000)), random.nextInt(4) != 0);
+        index.put(id, row.type(), row.price(), row.purchaseDate(), row.owned());
+        rows.put(id, row);
+    }
+
+    private ValuationSeries expected(Map<Long, Row> rows, List<LocalDate> dates, String type, boolean includeSold) {
+        ValuationSeries series = new ValuationSeries(new long[dates.size()], new double[dates.size()], new double[dates.size()]);
+        for (Row row : rows.values()) {
+            if ((type != null && !type.equals(row.type())) || !(includeSold || row.owned())) {
+                continue;
+            }
+            for (int i = 0; i < dates.size(); i++) {
+                long age = ChronoUnit.DAYS.between(row.purchaseDate(), dates.get(i));
+                if (age >= 0) {
+                    series.getHoldings()[i]++;
+                    series.getCostBasis()[i] += row.price();
+                    series.getValue()[i] += row.price() * Math.pow(1 - RATES.applyAsDouble(row.type()), age / 365.25);
+                }
+            }
+        }
+        return series;
+    }
+
+    private void assertSeries(ValuationSeries expected, ValuationSeries actual) {
+        assertArrayEquals(expected.getHoldings(), actual.getHoldings());
+        for (int i = 0; i < expected.getValue().length; i++) {
+            assertEquals(expected.getCostBasis()[i], actual.getCostBasis()[i], 0.01);
+            assertEquals(expected.getValue()[i], actual.getValue()[i], 0.01 + expected.getValue()[i] * 1e-9);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.nick.assetmanagementapp.service;
+
+import com.nick.assetmanagementapp.model.Asset;
+import com.nick.assetmanagementapp.repository.AssetRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:portfolio-journal-tests",
+        "app.journal.enabled=true"
+})
+class PortfolioAggregationJournalTests {
+
+    @TempDir
+    static Path journalDirectory;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private PortfolioAggregationService portfolioAggregationService;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.journal.directory", journalDirectory::toString);
+    }
+
+    @Test
+    void replaysTotalsFromTheJournalAtStartup() {
+        Asset kept = assetService.saveAsset(asset("Laptop", 1200.0));
+        Asset bypassed = assetService.saveAsset(asset("Desk", 300.0));
+        // Removed behind the service's back, so only the journal still knows about it
+        assetRepository.deleteById(bypassed.getId());
+
+        portfolioAggregationService.initialize();
+        assertEquals(2, portfolioAggregationService.getSummary().getTotalAssets());
+        assertEquals(1500.0, portfolioAggregationService.getSummary().getOwnedValue(), 0.001);
+
+        // The reconcile against the table then corrects the drift
+        portfolioAggregationService.rebuild();
+        assertEquals(1, portfolioAggregationService.getSummary().getTotalAssets());
+        assertEquals(kept.getPrice(), portfolioAggregationService.getSummary().getOwnedValue(), 0.001);
+    }
+
+    private static Asset asset(String name, double price) {
+        Asset asset = new Asset();
+        asset.setName(name);
+        asset.setType("Electronics");
+        asset.setPrice(price);
+        asset.setStillOwned(true);
+        asset.setPurchaseDate(LocalDate.of(2024, 1, 1));
+        return asset;
+    }
+}